@@ -4,6 +4,7 @@ import com.example.auth_service.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,4 +14,14 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    Optional<RoleStamp> findRoleStampByEmail(String email);
+
+    /**
+     * The part of a user that decides whether a token's claims are still current.
+     */
+    interface RoleStamp {
+
+        Instant getRolesChangedAt();
+    }
 }
@@ -1,12 +1,18 @@
 package com.example.auth_service.security;
 
+import com.example.auth_service.model.Role;
 import com.example.auth_service.model.User;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
@@ -14,6 +20,33 @@ public class CustomUserDetails implements UserDetails {
 
     private final User user;
 
+    /**
+     * Builds the principal from verified token claims instead of the database. Returns null
+     * for tokens issued before the user id and name were added to the claims. The user is
+     * never persisted and has no password hash.
+     */
+    public static CustomUserDetails fromClaims(Claims claims) {
+        String userId = claims.get(JwtUtil.USER_ID_CLAIM, String.class);
+        if (userId == null) {
+            return null;
+        }
+        String createdAt = claims.get(JwtUtil.CREATED_AT_CLAIM, String.class);
+        List<?> roles = claims.get(JwtUtil.ROLES_CLAIM, List.class);
+        Set<Role> userRoles = roles == null ? Set.of() : roles.stream()
+                .map(role -> Role.builder()
+                        .name(Role.RoleName.valueOf(role.toString().replaceFirst("^ROLE_", "")))
+                        .build())
+                .collect(Collectors.toSet());
+
+        return new CustomUserDetails(User.builder()
+                .id(UUID.fromString(userId))
+                .name(claims.get(JwtUtil.NAME_CLAIM, String.class))
+                .email(claims.getSubject())
+                .roles(userRoles)
+                .createdAt(createdAt != null ? LocalDateTime.parse(createdAt) : null)
+                .build());
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return user.getRoles().stream()
@@ -1,27 +1,36 @@
 package com.example.auth_service.security;
 
 import com.example.auth_service.service.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Date;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final boolean principalFromClaims;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil,
+                                   CustomUserDetailsService userDetailsService,
+                                   @Value("${jwt.principal-from-claims:true}") boolean principalFromClaims) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.principalFromClaims = principalFromClaims;
+    }
 
     @Override
     protected void doFilterInternal(
@@ -42,20 +51,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
-            userEmail = jwtUtil.extractUsername(jwt);
+            Claims claims = jwtUtil.parseClaims(jwt);
+            userEmail = claims.getSubject();
 
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-
-                if (jwtUtil.validateToken(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+                CustomUserDetails userDetails = resolvePrincipal(claims);
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication: " + e.getMessage());
@@ -63,4 +70,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Uses the verified claims as the principal when they can be trusted. The user's
+     * existence and last role change are still checked through a short-lived cache. For
+     * tokens without user claims or issued before the user's roles last changed, it loads
+     * the user through the same cache.
+     */
+    private CustomUserDetails resolvePrincipal(Claims claims) {
+        String email = claims.getSubject();
+        if (principalFromClaims) {
+            Date issuedAt = claims.getIssuedAt();
+            boolean rolesCurrent = issuedAt != null
+                    && !userDetailsService.rolesChangedSince(email, issuedAt.toInstant());
+            CustomUserDetails fromClaims = rolesCurrent ? CustomUserDetails.fromClaims(claims) : null;
+            if (fromClaims != null) {
+                return fromClaims;
+            }
+        }
+        return userDetailsService.loadCachedUser(email);
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.auth_service.security;
 
+import com.example.auth_service.model.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -16,15 +17,21 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    public static final String ROLES_CLAIM = "roles";
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String NAME_CLAIM = "name";
+    public static final String CREATED_AT_CLAIM = "createdAt";
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Long expiration;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtUtil(@Value("${jwt.secret}") String secret, @Value("${jwt.expiration}") Long expiration) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        this.expiration = expiration;
     }
 
     public String extractUsername(String token) {
@@ -36,27 +43,33 @@ public class JwtUtil {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseClaims(token);
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Verifies the signature and expiry of the token and returns its claims.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("roles", userDetails.getAuthorities().stream()
+        claims.put(ROLES_CLAIM, userDetails.getAuthorities().stream()
                 .map(Object::toString)
                 .toList());
+        if (userDetails instanceof CustomUserDetails customUserDetails) {
+            // Lets the request filter build the principal without loading the user
+            User user = customUserDetails.getUser();
+            claims.put(USER_ID_CLAIM, user.getId().toString());
+            claims.put(NAME_CLAIM, user.getName());
+            if (user.getCreatedAt() != null) {
+                claims.put(CREATED_AT_CLAIM, user.getCreatedAt().toString());
+            }
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
@@ -66,24 +79,28 @@ public class JwtUtil {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        try {
+            Claims claims = parseClaims(token);
+            return userDetails.getUsername().equals(claims.getSubject()) && !isExpired(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
     }
 
     public Boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return !isTokenExpired(token);
+            return !isExpired(parseClaims(token));
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
+
+    private boolean isExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
+    }
 }
@@ -2,23 +2,105 @@ package com.example.auth_service.service;
 
 import com.example.auth_service.model.User;
 import com.example.auth_service.repository.UserRepository;
+import com.example.auth_service.repository.UserRepository.RoleStamp;
 import com.example.auth_service.security.CustomUserDetails;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
 
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    /**
+     * Users loaded for request authentication, kept only briefly. Login does not use it.
+     */
+    private final Cache<String, CustomUserDetails> cachedUsers;
+
+    /**
+     * Each user's {@code roles_changed_at}, or empty once the user no longer exists. The
+     * column is shared by every instance, so entries only need to live as long as the
+     * cached users do.
+     */
+    private final Cache<String, Optional<RoleStamp>> roleStamps;
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    @Value("${auth.user-cache.ttl:30s}") Duration userCacheTtl,
+                                    @Value("${auth.user-cache.max-size:10000}") long userCacheMaxSize) {
+        this.userRepository = userRepository;
+        this.cachedUsers = Caffeine.newBuilder()
+                .maximumSize(userCacheMaxSize)
+                .expireAfterWrite(userCacheTtl)
+                .build();
+        this.roleStamps = Caffeine.newBuilder()
+                .maximumSize(userCacheMaxSize)
+                .expireAfterWrite(userCacheTtl)
+                .build();
+    }
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
         return new CustomUserDetails(user);
     }
+
+    /**
+     * Loads the user through a short-lived cache, for requests whose token cannot be
+     * trusted for roles on its own.
+     */
+    public CustomUserDetails loadCachedUser(String email) {
+        return cachedUsers.get(email, key -> (CustomUserDetails) loadUserByUsername(key));
+    }
+
+    /**
+     * Whether the user's roles changed at or after the time the token was issued. Token
+     * timestamps have second precision, so a token from the same second counts as stale.
+     * Throws if the user no longer exists, so tokens of deleted users stop authenticating
+     * within {@code auth.user-cache.ttl}.
+     */
+    public boolean rolesChangedSince(String email, Instant issuedAt) {
+        RoleStamp stamp = roleStamps.get(email, userRepository::findRoleStampByEmail)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+        Instant changedAt = stamp.getRolesChangedAt();
+        return changedAt != null && !issuedAt.isAfter(changedAt);
+    }
+
+    /**
+     * Stamps the role change on the user row, where every instance reads it, and drops the
+     * cached entries. They are dropped again after commit so a request racing the change
+     * cannot cache the old state.
+     */
+    public void rolesChanged(User user) {
+        String email = user.getEmail();
+        user.setRolesChangedAt(Instant.now());
+        evict(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(email);
+                }
+            });
+        }
+        log.debug("Roles changed for user {}, cached principal evicted", email);
+    }
+
+    private void evict(String email) {
+        roleStamps.invalidate(email);
+        cachedUsers.invalidate(email);
+    }
 }
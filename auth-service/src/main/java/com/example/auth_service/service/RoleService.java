@@ -22,6 +22,7 @@ public class RoleService {
 
     private final RoleRepository roleRepository;
     private final UserRepository userRepository;
+    private final CustomUserDetailsService userDetailsService;
 
     public List<RoleResponseDTO> getAllRoles() {
         return roleRepository.findAll().stream()
@@ -45,6 +46,7 @@ public class RoleService {
                 .orElseThrow(() -> new ResourceNotFoundException("Role not found: " + request.getRoleName()));
 
         user.getRoles().add(role);
+        userDetailsService.rolesChanged(user);
         user = userRepository.save(user);
 
         return UserResponseDTO.fromEntity(user);
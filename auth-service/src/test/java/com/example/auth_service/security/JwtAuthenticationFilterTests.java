@@ -0,0 +1,106 @@
+package com.example.auth_service.security;
+
+import com.example.auth_service.dto.AuthResponseDTO;
+import com.example.auth_service.dto.RegisterRequestDTO;
+import com.example.auth_service.dto.RoleAssignDTO;
+import com.example.auth_service.dto.UserResponseDTO;
+import com.example.auth_service.repository.UserRepository;
+import com.example.auth_service.service.AuthService;
+import com.example.auth_service.service.RoleService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class JwtAuthenticationFilterTests {
+
+    @Autowired
+    private JwtAuthenticationFilter filter;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RoleService roleService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void currentUserComesFromTokenWithoutQueries() throws Exception {
+        AuthResponseDTO registered = register();
+        authenticate(registered.getToken());
+        SecurityContextHolder.clearContext();
+
+        statistics.clear();
+        authenticate(registered.getToken());
+        UserResponseDTO me = authService.getCurrentUser();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(me).isEqualTo(registered.getUser());
+    }
+
+    @Test
+    void roleChangeFallsBackToFreshUser() throws Exception {
+        AuthResponseDTO registered = register();
+        authenticate(registered.getToken());
+        SecurityContextHolder.clearContext();
+
+        roleService.assignRoleToUser(new RoleAssignDTO(registered.getUser().getEmail(), "MANAGER"));
+        authenticate(registered.getToken());
+
+        assertThat(authService.getCurrentUser().getRoles()).containsExactlyInAnyOrder("STAFF", "MANAGER");
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities())
+                .extracting(Object::toString)
+                .containsExactlyInAnyOrder("ROLE_STAFF", "ROLE_MANAGER");
+    }
+
+    @Test
+    void deletedUserNoLongerAuthenticates() throws Exception {
+        AuthResponseDTO registered = register();
+        userRepository.deleteById(registered.getUser().getId());
+
+        authenticate(registered.getToken());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    private AuthResponseDTO register() {
+        return authService.register(new RegisterRequestDTO("Test User",
+                "user-" + UUID.randomUUID() + "@example.com", "secret123", null));
+    }
+
+    private void authenticate(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/auth/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+        });
+    }
+}
@@ -1,9 +1,103 @@
 package com.example.inventory_service.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 @EnableAsync
+@Slf4j
 public class AsyncConfig {
+
+    public static final String ALERT_EXECUTOR = "alertExecutor";
+    public static final String ANALYTICS_EXECUTOR = "analyticsExecutor";
+    public static final String IMAGE_EXECUTOR = "imageExecutor";
+    public static final String IMPORT_EXECUTOR = "importExecutor";
+
+    /**
+     * Runs alert emails on a small, fixed number of virtual threads so a slow SMTP server
+     * cannot tie up platform threads used for requests. The queue is bounded; when it is
+     * full new alerts are dropped and counted rather than blocking the stock update that
+     * raised them. Keep the concurrency below the number of CPU cores, since the mail
+     * client can pin a virtual thread to its carrier while it waits on the socket.
+     */
+    @Bean(name = ALERT_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService alertExecutor(MeterRegistry meterRegistry,
+                                         @Value("${alert.executor.concurrency:2}") int concurrency,
+                                         @Value("${alert.executor.queue-capacity:500}") int queueCapacity) {
+        Counter dropped = Counter.builder("alert.dropped")
+                .description("Alerts dropped before sending")
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency, concurrency,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofVirtual().name("alert-", 0).factory(),
+                (task, pool) -> {
+                    dropped.increment();
+                    log.warn("Alert queue full ({} pending), dropping alert", pool.getQueue().size());
+                });
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, ALERT_EXECUTOR);
+    }
+
+    /**
+     * Runs independent analytics queries side by side on virtual threads, each borrowing its
+     * own pooled connection. Concurrency is capped below the connection pool size so a burst
+     * of dashboard requests cannot take every connection away from regular requests; extra
+     * queries wait in the queue and count against their timeout. The queue is bounded, and
+     * queries that do not fit are rejected and reported as unavailable.
+     */
+    @Bean(name = ANALYTICS_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService analyticsExecutor(MeterRegistry meterRegistry,
+                                             @Value("${analytics.executor.concurrency:6}") int concurrency,
+                                             @Value("${analytics.executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency, concurrency,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofVirtual().name("analytics-", 0).factory());
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, ANALYTICS_EXECUTOR);
+    }
+
+    /**
+     * Scales product images into their smaller variants. The work is CPU bound, so it runs on
+     * a few platform threads rather than virtual ones. The queue is bounded and rejects tasks
+     * when full; callers either leave the variant to be made on first request or make it on
+     * their own thread.
+     */
+    @Bean(name = IMAGE_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService imageExecutor(MeterRegistry meterRegistry,
+                                         @Value("${file.variants.executor.concurrency:2}") int concurrency,
+                                         @Value("${file.variants.executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency, concurrency,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("image-", 0).daemon().factory());
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, IMAGE_EXECUTOR);
+    }
+
+    /**
+     * Validates and writes product import chunks, each in its own transaction. The queue
+     * holds only a few chunks; when it is full the thread reading the upload writes the next
+     * chunk itself, which stops it reading further ahead than the database can keep up with.
+     */
+    @Bean(name = IMPORT_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService importExecutor(MeterRegistry meterRegistry,
+                                          @Value("${import.concurrency:4}") int concurrency) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency, concurrency,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(concurrency),
+                Thread.ofVirtual().name("import-", 0).factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, IMPORT_EXECUTOR);
+    }
 }
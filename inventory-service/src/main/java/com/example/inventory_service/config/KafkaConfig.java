@@ -1,5 +1,7 @@
 package com.example.inventory_service.config;
 
+import com.example.inventory_service.kafka.StockEventDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,6 +11,9 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -23,22 +28,44 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id:inventory-service}")
     private String groupId;
 
+    @Value("${kafka.consumer.batch-enabled:false}")
+    private boolean batchEnabled;
+
+    @Value("${kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${kafka.consumer.retry.max-attempts:5}")
+    private long retryMaxAttempts;
+
+    @Value("${kafka.consumer.retry.backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    /**
+     * Values are decoded by {@link StockEventDeserializer}, which picks JSON or the binary
+     * codec from the content-type header. Records that cannot be decoded are handed to the
+     * error handler by {@link ErrorHandlingDeserializer} instead of failing every poll.
+     */
     @Bean
-    public ConsumerFactory<String, String> consumerFactory() {
+    public ConsumerFactory<String, Object> consumerFactory(ObjectMapper objectMapper) {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        return new DefaultKafkaConsumerFactory<>(props);
+        if (batchEnabled) {
+            props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        }
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new StockEventDeserializer(objectMapper)));
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(batchEnabled);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(retryBackoffMs, retryMaxAttempts)));
         return factory;
     }
 }
@@ -0,0 +1,88 @@
+package com.example.inventory_service.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the trigram indexes behind product search. Hibernate's schema update cannot
+ * express extensions or expression indexes, so they are created here once the schema is in
+ * place. {@code pg_trgm} GIN indexes let {@code LIKE '%term%'} on the lower-cased name and
+ * SKU use an index instead of scanning the whole catalog. Indexes are built concurrently
+ * so a first start against a large catalog does not block writes. If the extension cannot
+ * be created, search still works, just without the index.
+ * <p>
+ * The work is done under a session-level advisory lock, so only one instance at a time
+ * checks and builds the indexes; an instance that does not get the lock leaves it to the
+ * one that has it. Waiting for the lock instead would keep a snapshot open that the other
+ * instance's concurrent build has to wait for.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndexInitializer {
+
+    private static final String CREATE_EXTENSION = "CREATE EXTENSION IF NOT EXISTS pg_trgm";
+
+    private static final Map<String, String> INDEXES = Map.of(
+            "idx_product_name_trgm", "products USING gin (LOWER(name) gin_trgm_ops)",
+            "idx_product_sku_trgm", "products USING gin (LOWER(sku) gin_trgm_ops)");
+
+    private static final String TRY_LOCK_SQL =
+            "SELECT pg_try_advisory_lock(hashtextextended('product_search_indexes', 0))";
+
+    private static final String UNLOCK_SQL =
+            "SELECT pg_advisory_unlock(hashtextextended('product_search_indexes', 0))";
+
+    private static final String INDEX_VALID_SQL = "SELECT indisvalid FROM pg_index WHERE indexrelid = to_regclass(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            // the advisory lock belongs to the session, so everything runs on one connection
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+                if (!Boolean.TRUE.equals(session.queryForObject(TRY_LOCK_SQL, Boolean.class))) {
+                    log.info("Another instance is creating the product search indexes, skipping");
+                    return null;
+                }
+                try {
+                    session.execute(CREATE_EXTENSION);
+                    INDEXES.forEach((name, definition) -> createIndex(session, name, definition));
+                } finally {
+                    session.queryForObject(UNLOCK_SQL, Boolean.class);
+                }
+                log.info("Product search trigram indexes are in place");
+                return null;
+            });
+        } catch (DataAccessException e) {
+            log.warn("Could not create product search indexes, search will scan the products table", e);
+        }
+    }
+
+    /**
+     * A concurrent build that fails or is interrupted leaves an invalid index behind, which
+     * {@code IF NOT EXISTS} would then skip on every start while the planner ignores it. Such
+     * an index is dropped and built again. A build still in progress is invalid too, which is
+     * why this only runs under the advisory lock.
+     */
+    private void createIndex(JdbcTemplate session, String name, String definition) {
+        List<Boolean> valid = session.queryForList(INDEX_VALID_SQL, Boolean.class, name);
+        if (!valid.isEmpty() && !valid.get(0)) {
+            log.warn("Product search index {} is invalid, rebuilding it", name);
+            session.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+        }
+        session.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " ON " + definition);
+    }
+}
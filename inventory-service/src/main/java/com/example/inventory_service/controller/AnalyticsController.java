@@ -2,6 +2,7 @@ package com.example.inventory_service.controller;
 
 import com.example.inventory_service.dto.*;
 import com.example.inventory_service.service.AnalyticsService;
+import com.example.inventory_service.service.TopMovedProductsTracker.TimeWindow;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +11,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/analytics")
@@ -26,6 +28,17 @@ public class AnalyticsController {
         return ResponseEntity.ok(analyticsService.getSummary());
     }
 
+    @GetMapping("/dashboard")
+    @Operation(summary = "Get all dashboard sections in one call; failed sections are listed as unavailable")
+    public ResponseEntity<AnalyticsDashboardDTO> getDashboard(
+            @RequestParam(defaultValue = "20") int lowStockSize,
+            @RequestParam(defaultValue = "5") int topMovedLimit,
+            @RequestParam(defaultValue = "30d") String window,
+            @RequestParam(defaultValue = "7") int days) {
+        return ResponseEntity.ok(analyticsService.getDashboard(lowStockSize, topMovedLimit,
+                TimeWindow.parse(window), days));
+    }
+
     @GetMapping("/low-stock")
     @Operation(summary = "Get low stock items")
     public ResponseEntity<List<LowStockDTO>> getLowStockItems(
@@ -33,17 +46,28 @@ public class AnalyticsController {
         return ResponseEntity.ok(analyticsService.getLowStockItems(threshold));
     }
 
+    @GetMapping("/low-stock/scroll")
+    @Operation(summary = "Scroll low stock items with a cursor")
+    public ResponseEntity<CursorPageDTO<LowStockDTO>> scrollLowStockItems(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(analyticsService.scrollLowStockItems(cursor, size));
+    }
+
     @GetMapping("/top-moved")
-    @Operation(summary = "Get top moved products")
+    @Operation(summary = "Get top moved products over the last 1h, 24h or 30d")
     public ResponseEntity<List<TopMovedProductDTO>> getTopMovedProducts(
-            @RequestParam(defaultValue = "5") int limit) {
-        return ResponseEntity.ok(analyticsService.getTopMovedProducts(limit));
+            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(defaultValue = "30d") String window) {
+        return ResponseEntity.ok(analyticsService.getTopMovedProducts(limit, TimeWindow.parse(window)));
     }
 
     @GetMapping("/daily-stock-flow")
-    @Operation(summary = "Get daily stock flow")
+    @Operation(summary = "Get daily stock flow, optionally for one product and/or warehouse")
     public ResponseEntity<List<DailyStockFlowDTO>> getDailyStockFlow(
-            @RequestParam(defaultValue = "7") int days) {
-        return ResponseEntity.ok(analyticsService.getDailyStockFlow(days));
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(required = false) UUID productId,
+            @RequestParam(required = false) UUID warehouseId) {
+        return ResponseEntity.ok(analyticsService.getDailyStockFlow(days, productId, warehouseId));
     }
 }
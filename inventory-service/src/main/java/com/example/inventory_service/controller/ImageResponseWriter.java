@@ -0,0 +1,145 @@
+package com.example.inventory_service.controller;
+
+import com.example.inventory_service.exception.ResourceNotFoundException;
+import com.example.inventory_service.service.FileStorageService.ImageFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Writes a stored image as an HTTP response: strong ETag from the content hash, conditional
+ * GET, single byte ranges and long-lived caching, since an image never changes under its id.
+ * <p>
+ * Bodies are handed to Tomcat's sendfile when the connector offers it, so the kernel copies
+ * the file straight to the socket. Otherwise the file channel is transferred to the response
+ * stream without going through a heap buffer of our own.
+ */
+@Component
+public class ImageResponseWriter {
+
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final String cacheControl;
+    private final long sendfileMinSize;
+
+    public ImageResponseWriter(@Value("${file.image-cache-max-age:30d}") Duration maxAge,
+            @Value("${file.sendfile-min-size:48KB}") DataSize sendfileMinSize) {
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().getHeaderValue();
+        this.sendfileMinSize = sendfileMinSize.toBytes();
+    }
+
+    public void write(ImageFile image, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!Files.isReadable(image.path())) {
+            throw new ResourceNotFoundException("File not found: " + image.fileName());
+        }
+        String etag = "\"" + image.contentHash() + "\"";
+        long lastModified = image.lastModified().toEpochMilli();
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        long length = image.size();
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request, etag, lastModified)) {
+            List<HttpRange> ranges = parseRanges(rangeHeader);
+            // several ranges would need a multipart body; the full image is a valid answer
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    start = length;
+                }
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(image.contentType());
+        response.setContentLengthLong(count);
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                .filename(image.fileName(), StandardCharsets.UTF_8).build().toString());
+        if ("HEAD".equals(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        if (count >= sendfileMinSize && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, image.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(image.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    private static List<HttpRange> parseRanges(String header) {
+        try {
+            return HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            // a malformed Range header is ignored rather than rejected
+            return List.of();
+        }
+    }
+
+    /**
+     * A range request made against an older version of the file gets the whole file instead.
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -2,19 +2,31 @@ package com.example.inventory_service.controller;
 
 import com.example.inventory_service.dto.*;
 import com.example.inventory_service.service.InventoryService;
+import com.example.inventory_service.service.StockMovementExportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequestMapping("/api/inventory")
@@ -23,6 +35,7 @@ import java.util.UUID;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final StockMovementExportService stockMovementExportService;
 
     @GetMapping
     @Operation(summary = "Get all inventory items")
@@ -31,6 +44,14 @@ public class InventoryController {
         return ResponseEntity.ok(inventoryService.getAllInventory(pageable));
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Get inventory items with cursor pagination")
+    public ResponseEntity<CursorPageDTO<StockResponseDTO>> scrollInventory(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(inventoryService.scrollInventory(cursor, size));
+    }
+
     @PostMapping("/adjust")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     @Operation(summary = "Adjust stock quantity")
@@ -38,6 +59,14 @@ public class InventoryController {
         return ResponseEntity.ok(inventoryService.adjustStock(dto));
     }
 
+    @PostMapping("/adjust/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Apply many stock adjustments in one transaction")
+    public ResponseEntity<StockAdjustBatchResponseDTO> adjustStockBatch(
+            @Valid @RequestBody StockAdjustBatchRequestDTO dto) {
+        return ResponseEntity.ok(inventoryService.adjustStockBatch(dto));
+    }
+
     @PostMapping("/transfer")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     @Operation(summary = "Transfer stock between warehouses")
@@ -53,4 +82,47 @@ public class InventoryController {
             @PageableDefault(size = 50, sort = "createdAt") Pageable pageable) {
         return ResponseEntity.ok(inventoryService.getStockMovements(productId, warehouseId, pageable));
     }
+
+    @GetMapping("/movements/scroll")
+    @Operation(summary = "Get stock movements history with cursor pagination, newest first")
+    public ResponseEntity<CursorPageDTO<StockMovementResponseDTO>> scrollStockMovements(
+            @RequestParam(required = false) UUID productId,
+            @RequestParam(required = false) UUID warehouseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(inventoryService.scrollStockMovements(productId, warehouseId, cursor, size));
+    }
+
+    @GetMapping("/movements/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Stream stock movement history as NDJSON or CSV, oldest first")
+    public ResponseEntity<StreamingResponseBody> exportStockMovements(
+            @RequestParam(required = false) UUID productId,
+            @RequestParam(required = false) UUID warehouseId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletRequest request) {
+        StockMovementExportService.Format exportFormat = StockMovementExportService.Format.parse(format);
+        StockMovementExportService.Slot slot = stockMovementExportService.reserveSlot();
+        // released when the async request completes, also if the body never gets to run
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(slot, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                slot.close();
+            }
+        });
+        StreamingResponseBody body = out -> {
+            try (slot) {
+                stockMovementExportService.export(productId, warehouseId, from, to, exportFormat, out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("stock-movements." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
 }
@@ -1,20 +1,26 @@
 package com.example.inventory_service.controller;
 
+import com.example.inventory_service.dto.CursorPageDTO;
 import com.example.inventory_service.dto.ProductCreateDTO;
+import com.example.inventory_service.dto.ProductImportResultDTO;
 import com.example.inventory_service.dto.ProductResponseDTO;
 import com.example.inventory_service.dto.ProductUpdateDTO;
+import com.example.inventory_service.exception.ResourceNotFoundException;
 import com.example.inventory_service.model.ProductImage;
 import com.example.inventory_service.service.FileStorageService;
+import com.example.inventory_service.service.ImageVariantService;
+import com.example.inventory_service.service.ImageVariantService.ImageSize;
+import com.example.inventory_service.service.ProductImportService;
 import com.example.inventory_service.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -22,6 +28,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.Map;
 import java.util.UUID;
@@ -33,7 +40,10 @@ import java.util.UUID;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
     private final FileStorageService fileStorageService;
+    private final ImageVariantService imageVariantService;
+    private final ImageResponseWriter imageResponseWriter;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
@@ -42,6 +52,17 @@ public class ProductController {
         return new ResponseEntity<>(productService.createProduct(dto), HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Bulk import products from a CSV or NDJSON body, reporting errors per row")
+    public ResponseEntity<ProductImportResultDTO> importProducts(
+            @RequestParam(defaultValue = "insert") String mode,
+            HttpServletRequest request) throws IOException {
+        ProductImportService.Format format = ProductImportService.Format.fromContentType(request.getContentType());
+        return ResponseEntity.ok(productImportService.importProducts(request.getInputStream(), format,
+                ProductImportService.Mode.parse(mode)));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get product by ID")
     public ResponseEntity<ProductResponseDTO> getProduct(@PathVariable UUID id) {
@@ -59,6 +80,15 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProducts(category, minPrice, maxPrice, search, pageable));
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Get products ordered by name with cursor pagination")
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> scrollProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(productService.scrollProducts(category, cursor, size));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     @Operation(summary = "Update a product")
@@ -90,14 +120,34 @@ public class ProductController {
         ));
     }
 
+    @PostMapping(value = "/{id}/image", consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE,
+            MediaType.IMAGE_GIF_VALUE, "image/webp", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Upload product image as the raw request body, streamed to storage in one pass")
+    public ResponseEntity<Map<String, Object>> uploadImageStream(
+            @PathVariable UUID id,
+            @RequestParam(required = false) String fileName,
+            HttpServletRequest request) throws IOException {
+        ProductImage image = fileStorageService.uploadProductImage(id, fileName, request.getInputStream(),
+                request.getContentLengthLong());
+        return ResponseEntity.ok(Map.of(
+                "imageId", image.getId(),
+                "fileName", image.getFileName(),
+                "message", "Image uploaded successfully"
+        ));
+    }
+
     @GetMapping("/{productId}/images/{imageId}")
-    @Operation(summary = "Get product image")
-    public ResponseEntity<Resource> getImage(@PathVariable UUID productId, @PathVariable UUID imageId) {
-        Resource resource = fileStorageService.loadFileAsResource(imageId);
-        return ResponseEntity.ok()
-                .contentType(MediaType.IMAGE_JPEG)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+    @Operation(summary = "Get product image, optionally scaled to a thumbnail (thumb) or medium size")
+    public void getImage(@PathVariable UUID productId, @PathVariable UUID imageId,
+            @RequestParam(defaultValue = "full") String size,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageSize imageSize = ImageSize.parse(size);
+        FileStorageService.ImageFile image = fileStorageService.getImageFile(imageId);
+        if (!image.productId().equals(productId)) {
+            throw new ResourceNotFoundException("Image not found with id: " + imageId);
+        }
+        imageResponseWriter.write(imageVariantService.variant(image, imageSize).orElse(image), request, response);
     }
 
     @DeleteMapping("/{productId}/images/{imageId}")
@@ -0,0 +1,25 @@
+package com.example.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Everything the analytics dashboard shows, loaded in one call. Sections whose query failed
+ * or timed out are {@code null} and listed in {@code unavailable}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnalyticsDashboardDTO {
+
+    private AnalyticsSummaryDTO summary;
+    private CursorPageDTO<LowStockDTO> lowStock;
+    private List<TopMovedProductDTO> topMoved;
+    private List<DailyStockFlowDTO> dailyStockFlow;
+    private List<String> unavailable;
+}
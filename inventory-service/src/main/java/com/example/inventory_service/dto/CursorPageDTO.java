@@ -0,0 +1,41 @@
+package com.example.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. Unlike {@code Page} it carries no total count;
+ * pass {@code nextCursor} back as {@code cursor} to fetch the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageDTO<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    /**
+     * Builds a page from rows fetched with a limit of {@code size + 1}; the extra row only
+     * tells whether another page exists.
+     */
+    public static <E, T> CursorPageDTO<T> of(List<E> rows, int size,
+                                             Function<E, T> mapper, Function<E, String> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<E> page = hasNext ? rows.subList(0, size) : rows;
+        return CursorPageDTO.<T>builder()
+                .content(page.stream().map(mapper).toList())
+                .size(page.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? cursorOf.apply(page.get(page.size() - 1)) : null)
+                .build();
+    }
+}
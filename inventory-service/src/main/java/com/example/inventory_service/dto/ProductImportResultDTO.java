@@ -0,0 +1,37 @@
+package com.example.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import. Rows are numbered from 1, not counting a CSV header.
+ * Only the first errors are listed; {@code failed} counts all of them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductImportResultDTO {
+
+    private long rows;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+    private long durationMs;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        private long row;
+        private String sku;
+        private String message;
+    }
+}
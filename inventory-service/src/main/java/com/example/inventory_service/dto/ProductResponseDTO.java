@@ -1,6 +1,7 @@
 package com.example.inventory_service.dto;
 
 import com.example.inventory_service.model.Product;
+import com.example.inventory_service.model.ProductImage;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -30,6 +31,11 @@ public class ProductResponseDTO {
     private List<String> imageUrls;
 
     public static ProductResponseDTO fromEntity(Product product) {
+        return fromEntity(product, product.getImages() != null ?
+                product.getImages().stream().map(ProductImage::getId).toList() : List.of());
+    }
+
+    public static ProductResponseDTO fromEntity(Product product, List<UUID> imageIds) {
         return ProductResponseDTO.builder()
                 .id(product.getId())
                 .sku(product.getSku())
@@ -40,10 +46,9 @@ public class ProductResponseDTO {
                 .reorderLevel(product.getReorderLevel())
                 .isActive(product.getIsActive())
                 .createdAt(product.getCreatedAt())
-                .imageUrls(product.getImages() != null ?
-                        product.getImages().stream()
-                                .map(img -> "/api/products/" + product.getId() + "/images/" + img.getId())
-                                .collect(Collectors.toList()) : List.of())
+                .imageUrls(imageIds.stream()
+                        .map(imageId -> "/api/products/" + product.getId() + "/images/" + imageId)
+                        .collect(Collectors.toList()))
                 .build();
     }
 }
@@ -0,0 +1,23 @@
+package com.example.inventory_service.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAdjustBatchRequestDTO {
+
+    @NotEmpty(message = "At least one adjustment is required")
+    @Size(max = 10000, message = "A batch must not exceed 10000 adjustments")
+    @Valid
+    private List<StockAdjustRequestDTO> adjustments;
+}
@@ -0,0 +1,20 @@
+package com.example.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAdjustBatchResponseDTO {
+
+    private int totalLines;
+    private int appliedLines;
+    private int rejectedLines;
+    private List<StockAdjustLineResultDTO> results;
+}
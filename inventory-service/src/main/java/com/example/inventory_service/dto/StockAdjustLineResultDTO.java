@@ -0,0 +1,23 @@
+package com.example.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAdjustLineResultDTO {
+
+    private int index;
+    private UUID productId;
+    private UUID warehouseId;
+    private Integer adjustment;
+    private String status;
+    private Integer resultingQuantity;
+    private String message;
+}
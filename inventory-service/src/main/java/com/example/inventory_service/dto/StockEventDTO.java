@@ -14,6 +14,9 @@ import java.util.UUID;
 @Builder
 public class StockEventDTO {
 
+    public static final String STOCK_IN_EVENT = "STOCK_IN_EVENT";
+    public static final String STOCK_OUT_EVENT = "STOCK_OUT_EVENT";
+
     private UUID eventId;
     private String eventType;
     private UUID productId;
@@ -0,0 +1,37 @@
+package com.example.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * All stock lines of one purchase or sales order, published as a single message on
+ * {@code stock.order.events} and applied in one transaction.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockOrderEventDTO {
+
+    private UUID eventId;
+    private String eventType;
+    private UUID referenceId;
+    private LocalDateTime timestamp;
+    private List<Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        private UUID productId;
+        private UUID warehouseId;
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.inventory_service.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
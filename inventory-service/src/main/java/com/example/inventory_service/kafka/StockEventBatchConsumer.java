@@ -0,0 +1,61 @@
+package com.example.inventory_service.kafka;
+
+import com.example.inventory_service.dto.StockEventDTO;
+import com.example.inventory_service.dto.StockOrderEventDTO;
+import com.example.inventory_service.exception.InsufficientStockException;
+import com.example.inventory_service.exception.ResourceNotFoundException;
+import com.example.inventory_service.service.InventoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "kafka.consumer.batch-enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class StockEventBatchConsumer {
+
+    private static final String STOCK_IN_TOPIC = "stock.in.events";
+    private static final String STOCK_OUT_TOPIC = "stock.out.events";
+
+    private final InventoryService inventoryService;
+
+    @KafkaListener(topics = {STOCK_IN_TOPIC, STOCK_OUT_TOPIC, StockEventDeserializer.STOCK_ORDER_TOPIC},
+            groupId = "${spring.kafka.consumer.group-id:inventory-service}")
+    public void consumeStockEvents(List<ConsumerRecord<String, Object>> records) {
+        List<StockEventDTO> events = new ArrayList<>(records.size());
+        List<StockOrderEventDTO> orderEvents = new ArrayList<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            if (record.value() instanceof StockOrderEventDTO orderEvent) {
+                orderEvents.add(orderEvent);
+            } else if (record.value() instanceof StockEventDTO event) {
+                event.setEventType(STOCK_IN_TOPIC.equals(record.topic()) ?
+                        StockEventDTO.STOCK_IN_EVENT : StockEventDTO.STOCK_OUT_EVENT);
+                events.add(event);
+            } else {
+                log.error("Failed to parse stock event at {}-{}@{}",
+                        record.topic(), record.partition(), record.offset());
+            }
+        }
+
+        if (!events.isEmpty()) {
+            int applied = inventoryService.processStockEventBatch(events);
+            log.info("Processed stock event batch: {} of {} line events applied", applied, events.size());
+        }
+
+        // Order events are all-or-nothing, so each one keeps its own transaction.
+        for (StockOrderEventDTO orderEvent : orderEvents) {
+            try {
+                inventoryService.processStockOrderEvent(orderEvent);
+            } catch (InsufficientStockException | ResourceNotFoundException e) {
+                log.error("Failed to process stock order event {}: {}", orderEvent.getEventId(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.inventory_service.kafka;
+
+import com.example.inventory_service.dto.StockEventDTO;
+import com.example.inventory_service.dto.StockOrderEventDTO;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of stock events, used when a record carries
+ * {@link #CONTENT_TYPE_BINARY} in its content-type header. The layout is
+ * <pre>
+ *   byte    schema version
+ *   byte    message kind (line event or order event)
+ *   byte    presence flags for the optional fields
+ *   byte    event type (IN or OUT)
+ *   ...     fields of the message kind
+ * </pre>
+ * UUIDs are written as two big-endian longs and timestamps as UTC epoch microseconds.
+ * New fields must only ever be appended under a new schema version.
+ */
+public final class StockEventCodec {
+
+    public static final String CONTENT_TYPE_BINARY = "application/vnd.stock-event+binary";
+
+    static final byte VERSION_1 = 1;
+
+    private static final byte KIND_LINE_EVENT = 1;
+    private static final byte KIND_ORDER_EVENT = 2;
+
+    private static final int HAS_EVENT_ID = 1;
+    private static final int HAS_REFERENCE_ID = 1 << 1;
+    private static final int HAS_TIMESTAMP = 1 << 2;
+
+    private static final byte TYPE_NONE = 0;
+    private static final byte TYPE_STOCK_IN = 1;
+    private static final byte TYPE_STOCK_OUT = 2;
+
+    private static final int HEADER_SIZE = 4;
+    private static final int UUID_SIZE = 16;
+    private static final int ITEM_SIZE = 2 * UUID_SIZE + Integer.BYTES;
+
+    private StockEventCodec() {
+    }
+
+    public static byte[] encode(StockEventDTO event) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 3 * UUID_SIZE + ITEM_SIZE + Long.BYTES);
+        writeHeader(buffer, KIND_LINE_EVENT, event.getEventId(), event.getReferenceId(),
+                event.getTimestamp(), event.getEventType());
+        writeOptional(buffer, event.getEventId(), event.getReferenceId(), event.getTimestamp());
+        writeItem(buffer, event.getProductId(), event.getWarehouseId(), event.getQuantity());
+        return toArray(buffer);
+    }
+
+    public static byte[] encode(StockOrderEventDTO event) {
+        List<StockOrderEventDTO.Item> items = event.getItems();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 2 * UUID_SIZE + Long.BYTES
+                + Integer.BYTES + items.size() * ITEM_SIZE);
+        writeHeader(buffer, KIND_ORDER_EVENT, event.getEventId(), event.getReferenceId(),
+                event.getTimestamp(), event.getEventType());
+        writeOptional(buffer, event.getEventId(), event.getReferenceId(), event.getTimestamp());
+        buffer.putInt(items.size());
+        for (StockOrderEventDTO.Item item : items) {
+            writeItem(buffer, item.getProductId(), item.getWarehouseId(), item.getQuantity());
+        }
+        return toArray(buffer);
+    }
+
+    /**
+     * Decodes either message kind; the caller checks the returned type.
+     */
+    public static Object decode(byte[] data) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            byte version = buffer.get();
+            if (version != VERSION_1) {
+                throw new SerializationException("Unsupported stock event schema version: " + version);
+            }
+            byte kind = buffer.get();
+            int flags = buffer.get();
+            String eventType = readEventType(buffer.get());
+            UUID eventId = (flags & HAS_EVENT_ID) != 0 ? readUuid(buffer) : null;
+            UUID referenceId = (flags & HAS_REFERENCE_ID) != 0 ? readUuid(buffer) : null;
+            LocalDateTime timestamp = (flags & HAS_TIMESTAMP) != 0 ? fromEpochMicros(buffer.getLong()) : null;
+
+            return switch (kind) {
+                case KIND_LINE_EVENT -> StockEventDTO.builder()
+                        .eventId(eventId)
+                        .eventType(eventType)
+                        .productId(readUuid(buffer))
+                        .warehouseId(readUuid(buffer))
+                        .quantity(buffer.getInt())
+                        .referenceId(referenceId)
+                        .timestamp(timestamp)
+                        .build();
+                case KIND_ORDER_EVENT -> {
+                    int count = buffer.getInt();
+                    if (count < 0 || count > buffer.remaining() / ITEM_SIZE) {
+                        throw new SerializationException("Invalid stock order event item count: " + count);
+                    }
+                    List<StockOrderEventDTO.Item> items = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        items.add(new StockOrderEventDTO.Item(readUuid(buffer), readUuid(buffer), buffer.getInt()));
+                    }
+                    yield StockOrderEventDTO.builder()
+                            .eventId(eventId)
+                            .eventType(eventType)
+                            .referenceId(referenceId)
+                            .timestamp(timestamp)
+                            .items(items)
+                            .build();
+                }
+                default -> throw new SerializationException("Unknown stock event kind: " + kind);
+            };
+        } catch (BufferUnderflowException e) {
+            throw new SerializationException("Truncated stock event payload of " + data.length + " bytes", e);
+        }
+    }
+
+    private static void writeHeader(ByteBuffer buffer, byte kind, UUID eventId, UUID referenceId,
+            LocalDateTime timestamp, String eventType) {
+        int flags = (eventId != null ? HAS_EVENT_ID : 0)
+                | (referenceId != null ? HAS_REFERENCE_ID : 0)
+                | (timestamp != null ? HAS_TIMESTAMP : 0);
+        buffer.put(VERSION_1).put(kind).put((byte) flags).put(writeEventType(eventType));
+    }
+
+    private static void writeOptional(ByteBuffer buffer, UUID eventId, UUID referenceId, LocalDateTime timestamp) {
+        if (eventId != null) {
+            writeUuid(buffer, eventId);
+        }
+        if (referenceId != null) {
+            writeUuid(buffer, referenceId);
+        }
+        if (timestamp != null) {
+            buffer.putLong(toEpochMicros(timestamp));
+        }
+    }
+
+    private static void writeItem(ByteBuffer buffer, UUID productId, UUID warehouseId, Integer quantity) {
+        if (productId == null || warehouseId == null || quantity == null) {
+            throw new SerializationException("Stock event line requires productId, warehouseId and quantity");
+        }
+        writeUuid(buffer, productId);
+        writeUuid(buffer, warehouseId);
+        buffer.putInt(quantity);
+    }
+
+    private static byte writeEventType(String eventType) {
+        if (eventType == null) {
+            return TYPE_NONE;
+        }
+        return switch (eventType) {
+            case StockEventDTO.STOCK_IN_EVENT -> TYPE_STOCK_IN;
+            case StockEventDTO.STOCK_OUT_EVENT -> TYPE_STOCK_OUT;
+            default -> throw new SerializationException("Unknown stock event type: " + eventType);
+        };
+    }
+
+    private static String readEventType(byte code) {
+        return switch (code) {
+            case TYPE_NONE -> null;
+            case TYPE_STOCK_IN -> StockEventDTO.STOCK_IN_EVENT;
+            case TYPE_STOCK_OUT -> StockEventDTO.STOCK_OUT_EVENT;
+            default -> throw new SerializationException("Unknown stock event type code: " + code);
+        };
+    }
+
+    private static void writeUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static long toEpochMicros(LocalDateTime timestamp) {
+        return Math.addExact(Math.multiplyExact(timestamp.toEpochSecond(ZoneOffset.UTC), 1_000_000L),
+                timestamp.getNano() / 1_000);
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        return buffer.position() == buffer.capacity()
+                ? buffer.array()
+                : Arrays.copyOf(buffer.array(), buffer.position());
+    }
+}
@@ -1,28 +1,31 @@
 package com.example.inventory_service.kafka;
 
 import com.example.inventory_service.dto.StockEventDTO;
+import com.example.inventory_service.dto.StockOrderEventDTO;
+import com.example.inventory_service.exception.InsufficientStockException;
+import com.example.inventory_service.exception.ResourceNotFoundException;
 import com.example.inventory_service.service.InventoryService;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
 @Component
+@ConditionalOnProperty(name = "kafka.consumer.batch-enabled", havingValue = "false", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
 public class StockEventConsumer {
 
     private final InventoryService inventoryService;
-    private final ObjectMapper objectMapper;
 
     @KafkaListener(topics = "stock.in.events", groupId = "${spring.kafka.consumer.group-id:inventory-service}")
-    public void consumeStockInEvent(String message) {
+    public void consumeStockInEvent(StockEventDTO event) {
         try {
-            StockEventDTO event = objectMapper.readValue(message, StockEventDTO.class);
             log.info("Received stock IN event: {}", event.getEventId());
 
             inventoryService.processStockIn(
+                    event.getEventId(),
                     event.getProductId(),
                     event.getWarehouseId(),
                     event.getQuantity(),
@@ -30,18 +33,18 @@ public class StockEventConsumer {
             );
 
             log.info("Processed stock IN event successfully: {}", event.getEventId());
-        } catch (Exception e) {
+        } catch (InsufficientStockException | ResourceNotFoundException e) {
             log.error("Failed to process stock IN event: {}", e.getMessage(), e);
         }
     }
 
     @KafkaListener(topics = "stock.out.events", groupId = "${spring.kafka.consumer.group-id:inventory-service}")
-    public void consumeStockOutEvent(String message) {
+    public void consumeStockOutEvent(StockEventDTO event) {
         try {
-            StockEventDTO event = objectMapper.readValue(message, StockEventDTO.class);
             log.info("Received stock OUT event: {}", event.getEventId());
 
             inventoryService.processStockOut(
+                    event.getEventId(),
                     event.getProductId(),
                     event.getWarehouseId(),
                     event.getQuantity(),
@@ -49,8 +52,22 @@ public class StockEventConsumer {
             );
 
             log.info("Processed stock OUT event successfully: {}", event.getEventId());
-        } catch (Exception e) {
+        } catch (InsufficientStockException | ResourceNotFoundException e) {
             log.error("Failed to process stock OUT event: {}", e.getMessage(), e);
         }
     }
+
+    @KafkaListener(topics = StockEventDeserializer.STOCK_ORDER_TOPIC,
+            groupId = "${spring.kafka.consumer.group-id:inventory-service}")
+    public void consumeStockOrderEvent(StockOrderEventDTO event) {
+        try {
+            log.info("Received stock order event: {} with {} lines", event.getEventId(), event.getItems().size());
+
+            inventoryService.processStockOrderEvent(event);
+
+            log.info("Processed stock order event successfully: {}", event.getEventId());
+        } catch (InsufficientStockException | ResourceNotFoundException e) {
+            log.error("Failed to process stock order event: {}", e.getMessage(), e);
+        }
+    }
 }
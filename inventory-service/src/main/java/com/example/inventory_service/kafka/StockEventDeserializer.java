@@ -0,0 +1,55 @@
+package com.example.inventory_service.kafka;
+
+import com.example.inventory_service.dto.StockEventDTO;
+import com.example.inventory_service.dto.StockOrderEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Turns stock event records into {@link StockEventDTO} or {@link StockOrderEventDTO}
+ * based on the record's content-type header, so JSON and binary producers can share the
+ * topics while they are rolled out. Records without the header are treated as JSON.
+ */
+public class StockEventDeserializer implements Deserializer<Object> {
+
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+    public static final String STOCK_ORDER_TOPIC = "stock.order.events";
+
+    private final ObjectMapper objectMapper;
+
+    public StockEventDeserializer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (StockEventCodec.CONTENT_TYPE_BINARY.equals(contentType(headers))) {
+            return StockEventCodec.decode(data);
+        }
+        Class<?> type = STOCK_ORDER_TOPIC.equals(topic) ? StockOrderEventDTO.class : StockEventDTO.class;
+        try {
+            return objectMapper.readValue(data, type);
+        } catch (IOException e) {
+            throw new SerializationException("Failed to parse JSON stock event from " + topic, e);
+        }
+    }
+
+    private String contentType(Headers headers) {
+        Header header = headers != null ? headers.lastHeader(CONTENT_TYPE_HEADER) : null;
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.inventory_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Stock movements of one type for one product in one warehouse, summed per day. Kept in
+ * step with {@code stock_movements} as movements are written, so flow reports read these
+ * rows instead of grouping the raw movement history.
+ */
+@Entity
+@Table(name = "daily_stock_flow", indexes = {
+        @Index(name = "idx_daily_flow_product_date", columnList = "product_id, flow_date"),
+        @Index(name = "idx_daily_flow_warehouse_date", columnList = "warehouse_id, flow_date")
+})
+@IdClass(DailyStockFlow.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyStockFlow {
+
+    @Id
+    @Column(name = "flow_date")
+    private LocalDate flowDate;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type")
+    private StockMovement.MovementType type;
+
+    @Id
+    @Column(name = "warehouse_id")
+    private UUID warehouseId;
+
+    @Id
+    @Column(name = "product_id")
+    private UUID productId;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    @Column(name = "movement_count", nullable = false)
+    private Long movementCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private LocalDate flowDate;
+        private StockMovement.MovementType type;
+        private UUID warehouseId;
+        private UUID productId;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.inventory_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * One stripe of the running dashboard totals. The totals are the sum over all stripes;
+ * writers spread across stripes so concurrent stock changes do not queue on one row.
+ */
+@Entity
+@Table(name = "inventory_summary")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventorySummary {
+
+    @Id
+    private Integer stripe;
+
+    @Column(name = "total_units", nullable = false)
+    private Long totalUnits;
+
+    @Column(name = "total_value", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalValue;
+
+    @Column(name = "product_count", nullable = false)
+    private Long productCount;
+
+    @Column(name = "warehouse_count", nullable = false)
+    private Long warehouseCount;
+}
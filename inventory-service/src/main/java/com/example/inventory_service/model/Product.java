@@ -14,7 +14,8 @@ import java.util.UUID;
 @Table(name = "products", indexes = {
         @Index(name = "idx_product_sku", columnList = "sku", unique = true),
         @Index(name = "idx_product_category", columnList = "category"),
-        @Index(name = "idx_product_name", columnList = "name")
+        @Index(name = "idx_product_name_id", columnList = "name, id"),
+        @Index(name = "idx_product_category_name_id", columnList = "category, name, id")
 })
 @Getter
 @Setter
@@ -8,7 +8,10 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "product_images")
+@Table(name = "product_images", indexes = {
+        @Index(name = "idx_product_images_file_path", columnList = "file_path"),
+        @Index(name = "idx_product_images_content_hash", columnList = "content_hash")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -27,9 +30,25 @@ public class ProductImage {
     @Column(name = "file_name", nullable = false)
     private String fileName;
 
+    /**
+     * Where the bytes are stored. Content-addressed files are shared by images with the
+     * same content, so several rows can point at the same path.
+     */
     @Column(name = "file_path", nullable = false)
     private String filePath;
 
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    /**
+     * Hex SHA-256 of the file, used as its strong ETag.
+     */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @CreationTimestamp
     @Column(name = "uploaded_at", updatable = false)
     private LocalDateTime uploadedAt;
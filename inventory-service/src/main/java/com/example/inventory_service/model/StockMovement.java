@@ -10,7 +10,9 @@ import java.util.UUID;
 @Entity
 @Table(name = "stock_movements", indexes = {
         @Index(name = "idx_movement_product_warehouse", columnList = "product_id, warehouse_id"),
-        @Index(name = "idx_movement_created_at", columnList = "created_at")
+        @Index(name = "idx_movement_created_at", columnList = "created_at"),
+        @Index(name = "idx_movement_product_created_at_id", columnList = "product_id, created_at, id"),
+        @Index(name = "idx_movement_warehouse_created_at_id", columnList = "warehouse_id, created_at, id")
 })
 @Getter
 @Setter
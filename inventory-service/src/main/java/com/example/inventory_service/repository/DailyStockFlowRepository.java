@@ -0,0 +1,26 @@
+package com.example.inventory_service.repository;
+
+import com.example.inventory_service.model.DailyStockFlow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DailyStockFlowRepository extends JpaRepository<DailyStockFlow, DailyStockFlow.Key> {
+
+    @Query("SELECT f.flowDate, f.type, SUM(f.quantity) " +
+           "FROM DailyStockFlow f " +
+           "WHERE f.flowDate >= :since " +
+           "AND (:productId IS NULL OR f.productId = :productId) " +
+           "AND (:warehouseId IS NULL OR f.warehouseId = :warehouseId) " +
+           "GROUP BY f.flowDate, f.type " +
+           "ORDER BY f.flowDate")
+    List<Object[]> getDailyStockFlow(@Param("since") LocalDate since,
+                                     @Param("productId") UUID productId,
+                                     @Param("warehouseId") UUID warehouseId);
+}
@@ -1,6 +1,7 @@
 package com.example.inventory_service.repository;
 
 import com.example.inventory_service.model.InventoryStock;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -25,10 +26,28 @@ public interface InventoryStockRepository extends JpaRepository<InventoryStock,
     @Query("SELECT i FROM InventoryStock i JOIN FETCH i.product JOIN FETCH i.warehouse")
     Page<InventoryStock> findAllWithDetails(Pageable pageable);
 
+    @Query("SELECT i FROM InventoryStock i JOIN FETCH i.product JOIN FETCH i.warehouse ORDER BY i.id")
+    List<InventoryStock> findFirstKeysetPage(Limit limit);
+
+    @Query("SELECT i FROM InventoryStock i JOIN FETCH i.product JOIN FETCH i.warehouse " +
+           "WHERE i.id > :id ORDER BY i.id")
+    List<InventoryStock> findKeysetPageAfter(@Param("id") UUID id, Limit limit);
+
     @Query("SELECT i FROM InventoryStock i JOIN FETCH i.product p JOIN FETCH i.warehouse " +
            "WHERE i.quantity <= p.reorderLevel")
     List<InventoryStock> findLowStockItems();
 
+    @Query("SELECT i FROM InventoryStock i JOIN FETCH i.product p JOIN FETCH i.warehouse w " +
+           "WHERE i.quantity <= p.reorderLevel ORDER BY p.id, w.id")
+    List<InventoryStock> findFirstLowStockPage(Limit limit);
+
+    @Query("SELECT i FROM InventoryStock i JOIN FETCH i.product p JOIN FETCH i.warehouse w " +
+           "WHERE i.quantity <= p.reorderLevel AND (p.id, w.id) > (:productId, :warehouseId) " +
+           "ORDER BY p.id, w.id")
+    List<InventoryStock> findLowStockPageAfter(@Param("productId") UUID productId,
+                                               @Param("warehouseId") UUID warehouseId,
+                                               Limit limit);
+
     @Query("SELECT i FROM InventoryStock i JOIN FETCH i.product p JOIN FETCH i.warehouse " +
            "WHERE i.quantity <= :threshold")
     List<InventoryStock> findByQuantityLessThanEqual(@Param("threshold") Integer threshold);
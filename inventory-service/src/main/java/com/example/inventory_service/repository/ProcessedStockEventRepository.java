@@ -0,0 +1,19 @@
+package com.example.inventory_service.repository;
+
+import com.example.inventory_service.model.ProcessedStockEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface ProcessedStockEventRepository extends JpaRepository<ProcessedStockEvent, UUID> {
+
+    @Modifying
+    @Query("DELETE FROM ProcessedStockEvent e WHERE e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -2,8 +2,11 @@ package com.example.inventory_service.repository;
 
 import com.example.inventory_service.model.ProductImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -13,4 +16,38 @@ public interface ProductImageRepository extends JpaRepository<ProductImage, UUID
     List<ProductImage> findByProductId(UUID productId);
 
     void deleteByProductId(UUID productId);
+
+    /**
+     * Number of images stored in a file; a content-addressed file is shared by every
+     * image with the same bytes.
+     */
+    long countByFilePath(String filePath);
+
+    long countByContentHash(String contentHash);
+
+    @Query("SELECT i.filePath AS filePath, i.contentHash AS contentHash FROM ProductImage i " +
+           "WHERE i.product.id = :productId")
+    List<StoredFileRef> findStoredFilesByProductId(@Param("productId") UUID productId);
+
+    /**
+     * Loads only the image ids for a set of products, for building image URLs without
+     * hydrating {@link ProductImage} entities.
+     */
+    @Query("SELECT i.product.id AS productId, i.id AS id FROM ProductImage i " +
+           "WHERE i.product.id IN :productIds ORDER BY i.uploadedAt, i.id")
+    List<ImageRef> findImageRefsByProductIds(@Param("productIds") Collection<UUID> productIds);
+
+    interface ImageRef {
+
+        UUID getProductId();
+
+        UUID getId();
+    }
+
+    interface StoredFileRef {
+
+        String getFilePath();
+
+        String getContentHash();
+    }
 }
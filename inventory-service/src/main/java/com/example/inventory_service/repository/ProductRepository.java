@@ -1,6 +1,7 @@
 package com.example.inventory_service.repository;
 
 import com.example.inventory_service.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -20,26 +22,72 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     boolean existsBySku(String sku);
 
     @Query(value = "SELECT * FROM products p WHERE " +
+           "(CAST(:category AS VARCHAR) IS NULL OR p.category = :category) AND " +
+           "(CAST(:minPrice AS NUMERIC) IS NULL OR p.unit_price >= :minPrice) AND " +
+           "(CAST(:maxPrice AS NUMERIC) IS NULL OR p.unit_price <= :maxPrice)",
+           countQuery = "SELECT COUNT(*) FROM products p WHERE " +
+           "(CAST(:category AS VARCHAR) IS NULL OR p.category = :category) AND " +
+           "(CAST(:minPrice AS NUMERIC) IS NULL OR p.unit_price >= :minPrice) AND " +
+           "(CAST(:maxPrice AS NUMERIC) IS NULL OR p.unit_price <= :maxPrice)",
+           nativeQuery = true)
+    Page<Product> findByFilters(
+            @Param("category") String category,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            Pageable pageable
+    );
+
+    /**
+     * Substring search on name and SKU, served by the trigram indexes created by
+     * {@link com.example.inventory_service.config.ProductSearchIndexInitializer}. {@code term}
+     * is the lower-cased search text and {@code pattern} the same text with LIKE wildcards
+     * escaped. Rows carry a {@code search_rank} column (exact SKU or name match first, then
+     * prefix matches, then the rest) that callers put first in the page sort.
+     */
+    @Query(value = "SELECT * FROM (SELECT p.*, CASE " +
+           "WHEN LOWER(p.sku) = :term THEN 0 " +
+           "WHEN LOWER(p.name) = :term THEN 1 " +
+           "WHEN LOWER(p.sku) LIKE CONCAT(:pattern, '%') THEN 2 " +
+           "WHEN LOWER(p.name) LIKE CONCAT(:pattern, '%') THEN 3 " +
+           "ELSE 4 END AS search_rank FROM products p WHERE " +
            "(CAST(:category AS VARCHAR) IS NULL OR p.category = :category) AND " +
            "(CAST(:minPrice AS NUMERIC) IS NULL OR p.unit_price >= :minPrice) AND " +
            "(CAST(:maxPrice AS NUMERIC) IS NULL OR p.unit_price <= :maxPrice) AND " +
-           "(CAST(:search AS VARCHAR) IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(p.sku) LIKE LOWER(CONCAT('%', :search, '%')))",
+           "(LOWER(p.name) LIKE CONCAT('%', :pattern, '%') OR LOWER(p.sku) LIKE CONCAT('%', :pattern, '%'))) p",
            countQuery = "SELECT COUNT(*) FROM products p WHERE " +
            "(CAST(:category AS VARCHAR) IS NULL OR p.category = :category) AND " +
            "(CAST(:minPrice AS NUMERIC) IS NULL OR p.unit_price >= :minPrice) AND " +
            "(CAST(:maxPrice AS NUMERIC) IS NULL OR p.unit_price <= :maxPrice) AND " +
-           "(CAST(:search AS VARCHAR) IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(p.sku) LIKE LOWER(CONCAT('%', :search, '%')))",
+           "(LOWER(p.name) LIKE CONCAT('%', :pattern, '%') OR LOWER(p.sku) LIKE CONCAT('%', :pattern, '%'))",
            nativeQuery = true)
-    Page<Product> findByFilters(
+    Page<Product> searchByFilters(
             @Param("category") String category,
             @Param("minPrice") BigDecimal minPrice,
             @Param("maxPrice") BigDecimal maxPrice,
-            @Param("search") String search,
+            @Param("term") String term,
+            @Param("pattern") String pattern,
             Pageable pageable
     );
 
+    // One query per filter combination, so each gets a plan that seeks the matching
+    // (name, id) or (category, name, id) index instead of a catch-all "IS NULL OR" plan.
+
+    @Query("SELECT p FROM Product p ORDER BY p.name, p.id")
+    List<Product> findFirstKeysetPage(Limit limit);
+
+    @Query("SELECT p FROM Product p WHERE p.category = :category ORDER BY p.name, p.id")
+    List<Product> findFirstKeysetPageInCategory(@Param("category") String category, Limit limit);
+
+    @Query("SELECT p FROM Product p WHERE (p.name, p.id) > (:name, :id) ORDER BY p.name, p.id")
+    List<Product> findKeysetPageAfter(@Param("name") String name, @Param("id") UUID id, Limit limit);
+
+    @Query("SELECT p FROM Product p WHERE p.category = :category " +
+           "AND (p.name, p.id) > (:name, :id) ORDER BY p.name, p.id")
+    List<Product> findKeysetPageInCategoryAfter(@Param("category") String category,
+                                                @Param("name") String name,
+                                                @Param("id") UUID id,
+                                                Limit limit);
+
     @Query("SELECT COUNT(p) FROM Product p WHERE p.isActive = true")
     Long countActiveProducts();
 }
@@ -0,0 +1,19 @@
+package com.example.inventory_service.repository;
+
+import com.example.inventory_service.model.StockMovement;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface StockMovementKeysetRepository {
+
+    /**
+     * Reads one page of movements, newest first, optionally after the given
+     * {@code (createdAt, id)} position. Only the filters that are set end up in the query,
+     * so each combination gets a plan that can seek the matching
+     * {@code (filter, created_at, id)} index.
+     */
+    List<StockMovement> findKeysetPage(UUID productId, UUID warehouseId,
+                                       LocalDateTime afterCreatedAt, UUID afterId, int limit);
+}
@@ -0,0 +1,47 @@
+package com.example.inventory_service.repository;
+
+import com.example.inventory_service.model.StockMovement;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+class StockMovementKeysetRepositoryImpl implements StockMovementKeysetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<StockMovement> findKeysetPage(UUID productId, UUID warehouseId,
+                                              LocalDateTime afterCreatedAt, UUID afterId, int limit) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> params = new HashMap<>();
+        if (productId != null) {
+            conditions.add("sm.productId = :productId");
+            params.put("productId", productId);
+        }
+        if (warehouseId != null) {
+            conditions.add("sm.warehouseId = :warehouseId");
+            params.put("warehouseId", warehouseId);
+        }
+        if (afterCreatedAt != null) {
+            conditions.add("(sm.createdAt, sm.id) < (:createdAt, :id)");
+            params.put("createdAt", afterCreatedAt);
+            params.put("id", afterId);
+        }
+        String jpql = "SELECT sm FROM StockMovement sm "
+                + (conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + " ")
+                + "ORDER BY sm.createdAt DESC, sm.id DESC";
+
+        TypedQuery<StockMovement> query = entityManager.createQuery(jpql, StockMovement.class)
+                .setMaxResults(limit);
+        params.forEach(query::setParameter);
+        return query.getResultList();
+    }
+}
@@ -3,20 +3,16 @@ package com.example.inventory_service.service;
 import com.example.inventory_service.dto.*;
 import com.example.inventory_service.model.Product;
 import com.example.inventory_service.model.StockMovement;
+import com.example.inventory_service.repository.DailyStockFlowRepository;
 import com.example.inventory_service.repository.InventoryStockRepository;
 import com.example.inventory_service.repository.ProductRepository;
-import com.example.inventory_service.repository.StockMovementRepository;
-import com.example.inventory_service.repository.WarehouseRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,31 +21,46 @@ import java.util.stream.Collectors;
 public class AnalyticsService {
 
     private final ProductRepository productRepository;
-    private final WarehouseRepository warehouseRepository;
     private final InventoryStockRepository inventoryStockRepository;
-    private final StockMovementRepository stockMovementRepository;
+    private final InventorySummaryService inventorySummaryService;
+    private final DailyStockFlowRepository dailyStockFlowRepository;
+    private final TopMovedProductsTracker topMovedProductsTracker;
+    private final LowStockIndex lowStockIndex;
+    private final ParallelQueryRunner parallelQueryRunner;
 
-    @Cacheable(value = "analytics-summary", unless = "#result == null")
     public AnalyticsSummaryDTO getSummary() {
-        Long totalProducts = productRepository.countActiveProducts();
-        Long totalWarehouses = warehouseRepository.count();
-        Long totalStockUnits = inventoryStockRepository.getTotalStockUnits();
-        BigDecimal totalStockValue = inventoryStockRepository.getTotalStockValue();
-
-        return AnalyticsSummaryDTO.builder()
-                .totalProducts(totalProducts)
-                .totalWarehouses(totalWarehouses)
-                .totalStockUnits(totalStockUnits)
-                .totalStockValue(totalStockValue != null ? totalStockValue : BigDecimal.ZERO)
+        return inventorySummaryService.getSummary();
+    }
+
+    /**
+     * Loads the dashboard sections in parallel, so it takes as long as the slowest one.
+     * A section that fails or times out is left out instead of failing the whole response.
+     */
+    public AnalyticsDashboardDTO getDashboard(int lowStockSize, int topMovedLimit,
+                                              TopMovedProductsTracker.TimeWindow window, int days) {
+        ParallelQueryRunner.Results results = parallelQueryRunner.run(Map.<String, Callable<?>>of(
+                "summary", this::getSummary,
+                "lowStock", () -> lowStockIndex.scroll(null, lowStockSize),
+                "topMoved", () -> getTopMovedProducts(topMovedLimit, window),
+                "dailyStockFlow", () -> getDailyStockFlow(days, null, null)));
+        return AnalyticsDashboardDTO.builder()
+                .summary(results.get("summary"))
+                .lowStock(results.get("lowStock"))
+                .topMoved(results.get("topMoved"))
+                .dailyStockFlow(results.get("dailyStockFlow"))
+                .unavailable(results.failures().keySet().stream().sorted().toList())
                 .build();
     }
 
+    /**
+     * Pairs at or below their reorder level come from {@link LowStockIndex}; an explicit
+     * threshold is evaluated in the database.
+     */
     public List<LowStockDTO> getLowStockItems(Integer threshold) {
-        var lowStockItems = threshold != null ?
-                inventoryStockRepository.findByQuantityLessThanEqual(threshold) :
-                inventoryStockRepository.findLowStockItems();
-
-        return lowStockItems.stream()
+        if (threshold == null) {
+            return lowStockIndex.findAll();
+        }
+        return inventoryStockRepository.findByQuantityLessThanEqual(threshold).stream()
                 .map(stock -> LowStockDTO.builder()
                         .productId(stock.getProduct().getId())
                         .productName(stock.getProduct().getName())
@@ -62,38 +73,43 @@ public class AnalyticsService {
                 .collect(Collectors.toList());
     }
 
-    public List<TopMovedProductDTO> getTopMovedProducts(int limit) {
-        LocalDateTime since = LocalDateTime.now().minusDays(30);
-        List<Object[]> results = stockMovementRepository.findTopMovedProducts(since, PageRequest.of(0, limit));
-
-        Map<UUID, Product> productCache = new HashMap<>();
-
-        return results.stream()
-                .map(row -> {
-                    UUID productId = (UUID) row[0];
-                    Long totalQty = ((Number) row[1]).longValue();
-                    Long totalMoves = ((Number) row[2]).longValue();
-
-                    Product product = productCache.computeIfAbsent(productId,
-                            id -> productRepository.findById(id).orElse(null));
-
-                    if (product == null) return null;
+    public CursorPageDTO<LowStockDTO> scrollLowStockItems(String cursor, int size) {
+        return lowStockIndex.scroll(cursor, size);
+    }
 
+    /**
+     * Top products by units moved in the window, estimated from memory by
+     * {@link TopMovedProductsTracker}, with names filled in by one product query.
+     */
+    public List<TopMovedProductDTO> getTopMovedProducts(int limit, TopMovedProductsTracker.TimeWindow window) {
+        List<TopMovedProductsTracker.Estimate> estimates = topMovedProductsTracker.top(window, limit);
+        Map<UUID, Product> products = productRepository.findAllById(estimates.stream()
+                        .map(TopMovedProductsTracker.Estimate::productId)
+                        .toList()).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+
+        return estimates.stream()
+                .filter(estimate -> products.containsKey(estimate.productId()))
+                .map(estimate -> {
+                    Product product = products.get(estimate.productId());
                     return TopMovedProductDTO.builder()
-                            .productId(productId)
+                            .productId(product.getId())
                             .productName(product.getName())
                             .productSku(product.getSku())
-                            .totalMovements(totalMoves)
-                            .totalQuantityMoved(totalQty)
+                            .totalMovements(estimate.movements())
+                            .totalQuantityMoved(estimate.quantity())
                             .build();
                 })
-                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
-    public List<DailyStockFlowDTO> getDailyStockFlow(int days) {
-        LocalDateTime since = LocalDateTime.now().minusDays(days);
-        List<Object[]> results = stockMovementRepository.getDailyStockFlow(since);
+    /**
+     * Daily inflow and outflow over the last {@code days} days, read from the
+     * {@code daily_stock_flow} rollup. Either filter may be {@code null}.
+     */
+    public List<DailyStockFlowDTO> getDailyStockFlow(int days, UUID productId, UUID warehouseId) {
+        LocalDate since = LocalDate.now().minusDays(days - 1L);
+        List<Object[]> results = dailyStockFlowRepository.getDailyStockFlow(since, productId, warehouseId);
 
         Map<LocalDate, DailyStockFlowDTO> flowMap = new LinkedHashMap<>();
 
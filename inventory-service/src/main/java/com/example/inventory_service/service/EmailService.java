@@ -1,8 +1,12 @@
 package com.example.inventory_service.service;
 
-import com.example.inventory_service.model.InventoryStock;
-import com.example.inventory_service.model.Product;
-import lombok.RequiredArgsConstructor;
+import com.example.inventory_service.config.AsyncConfig;
+import com.example.inventory_service.dto.LowStockDTO;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
@@ -10,12 +14,22 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class EmailService {
 
     private final JavaMailSender mailSender;
+    private final Map<String, Bucket> recipientBuckets = new ConcurrentHashMap<>();
+    private final int alertsPerMinute;
+
+    private final Timer sendTimer;
+    private final Counter rateLimitedCounter;
+    private final Counter failedCounter;
 
     @Value("${spring.mail.username:noreply@ims.com}")
     private String fromEmail;
@@ -26,53 +40,87 @@ public class EmailService {
     @Value("${spring.mail.enabled:false}")
     private boolean emailEnabled;
 
-    @Async
-    public void sendLowStockAlert(Product product, InventoryStock stock) {
+    public EmailService(JavaMailSender mailSender,
+                        MeterRegistry meterRegistry,
+                        @Value("${alert.rate-limit.per-recipient-per-minute:20}") int alertsPerMinute) {
+        this.mailSender = mailSender;
+        this.alertsPerMinute = alertsPerMinute;
+        this.sendTimer = Timer.builder("alert.send")
+                .description("Time taken to hand an alert email to the SMTP server")
+                .register(meterRegistry);
+        this.rateLimitedCounter = Counter.builder("alert.dropped")
+                .description("Alerts dropped before sending")
+                .tag("reason", "rate_limited")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("alert.failed")
+                .description("Alert emails the SMTP server did not accept")
+                .register(meterRegistry);
+    }
+
+    @Async(AsyncConfig.ALERT_EXECUTOR)
+    public void sendLowStockDigest(List<LowStockDTO> items) {
         if (!emailEnabled) {
-            log.info("Email disabled. Low stock alert for product {} would be sent to {}",
-                    product.getSku(), alertEmailTo);
+            log.info("Email disabled. Low stock digest with {} items would be sent to {}",
+                    items.size(), alertEmailTo);
             return;
         }
 
+        if (!recipientBucket(alertEmailTo).tryConsume(1)) {
+            rateLimitedCounter.increment();
+            log.warn("Alert rate limit reached for {}, dropping low stock digest with {} items",
+                    alertEmailTo, items.size());
+            return;
+        }
+
+        Timer.Sample sample = Timer.start();
         try {
             SimpleMailMessage message = new SimpleMailMessage();
             message.setFrom(fromEmail);
             message.setTo(alertEmailTo);
-            message.setSubject("Low Stock Alert: " + product.getName());
-            message.setText(buildLowStockEmailBody(product, stock));
+            message.setSubject("Low Stock Alert: " + items.size() + (items.size() == 1 ? " item" : " items"));
+            message.setText(buildLowStockDigestBody(items));
 
             mailSender.send(message);
-            log.info("Low stock alert email sent for product: {}", product.getSku());
+            log.info("Low stock digest email sent for {} items", items.size());
         } catch (Exception e) {
-            log.error("Failed to send low stock alert email for product: {}", product.getSku(), e);
+            failedCounter.increment();
+            log.error("Failed to send low stock digest email for {} items", items.size(), e);
+        } finally {
+            sample.stop(sendTimer);
         }
     }
 
-    private String buildLowStockEmailBody(Product product, InventoryStock stock) {
+    private Bucket recipientBucket(String recipient) {
+        return recipientBuckets.computeIfAbsent(recipient, key -> Bucket.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(alertsPerMinute)
+                        .refillGreedy(alertsPerMinute, Duration.ofMinutes(1))
+                        .build())
+                .build());
+    }
+
+    private String buildLowStockDigestBody(List<LowStockDTO> items) {
+        StringBuilder lines = new StringBuilder();
+        for (LowStockDTO item : items) {
+            lines.append(String.format("- %s (%s) in %s: %d units (reorder level: %d)%n",
+                    item.getProductSku(),
+                    item.getProductName(),
+                    item.getWarehouseName(),
+                    item.getCurrentQuantity(),
+                    item.getReorderLevel()));
+        }
         return String.format("""
                 LOW STOCK ALERT
 
-                Product Details:
-                - SKU: %s
-                - Name: %s
-                - Category: %s
-
-                Stock Information:
-                - Warehouse: %s
-                - Current Quantity: %d
-                - Reorder Level: %d
+                The following items have dropped to their reorder level:
 
+                %s
                 Please take action to replenish stock.
 
                 ---
                 Inventory Management System
                 """,
-                product.getSku(),
-                product.getName(),
-                product.getCategory() != null ? product.getCategory() : "N/A",
-                stock.getWarehouse().getName(),
-                stock.getQuantity(),
-                product.getReorderLevel()
+                lines
         );
     }
 }
@@ -6,112 +6,392 @@ import com.example.inventory_service.model.Product;
 import com.example.inventory_service.model.ProductImage;
 import com.example.inventory_service.repository.ProductImageRepository;
 import com.example.inventory_service.repository.ProductRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * Stores product images on disk. By default files are content-addressed: each file is
+ * named by the SHA-256 of its bytes under a two-level fan-out ({@code sha256/ab/cd/abcd...}),
+ * so identical uploads share one file and no directory grows past a few hundred entries.
+ * The rows of {@code product_images} pointing at a file are its references; the file is
+ * removed once the last of them is deleted.
+ * <p>
+ * Uploads are hashed while they are copied to a temporary file, then moved into place.
+ * Adding a reference and removing an unreferenced file take the same per-file advisory
+ * lock, so a file is never removed while an upload is reusing it.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class FileStorageService {
 
-    @Value("${file.upload-dir:uploads/products}")
-    private String uploadDir;
+    private static final String LOCK_FILE_SQL = "SELECT pg_advisory_xact_lock(hashtextextended(:path, 0))";
+
+    private static final List<String> ALLOWED_EXTENSIONS = Arrays.asList("jpg", "jpeg", "png", "gif", "webp");
+    private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
+    static final int SNIFF_BYTES = 12;
+
+    public static final String IMAGE_CACHE = "productImages";
 
     private final ProductRepository productRepository;
     private final ProductImageRepository productImageRepository;
+    private final ImageVariantService imageVariantService;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate cleanupTransaction;
+    private final Path uploadDir;
+    private final Path blobDir;
+    private final Path tempDir;
+    private final boolean contentAddressed;
 
-    private static final List<String> ALLOWED_EXTENSIONS = Arrays.asList("jpg", "jpeg", "png", "gif", "webp");
-    private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
+    public FileStorageService(ProductRepository productRepository,
+            ProductImageRepository productImageRepository,
+            ImageVariantService imageVariantService,
+            NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${file.upload-dir:uploads/products}") String uploadDir,
+            @Value("${file.content-addressed:true}") boolean contentAddressed) {
+        this.productRepository = productRepository;
+        this.productImageRepository = productImageRepository;
+        this.imageVariantService = imageVariantService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cleanupTransaction = new TransactionTemplate(transactionManager);
+        this.cleanupTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.uploadDir = Paths.get(uploadDir);
+        this.blobDir = this.uploadDir.resolve("sha256");
+        this.tempDir = this.uploadDir.resolve("tmp");
+        this.contentAddressed = contentAddressed;
+    }
 
     @PostConstruct
     public void init() {
         try {
-            Files.createDirectories(Paths.get(uploadDir));
+            Files.createDirectories(uploadDir);
+            Files.createDirectories(tempDir);
         } catch (IOException e) {
             throw new RuntimeException("Could not create upload directory", e);
         }
     }
 
-    @Transactional
     public ProductImage uploadProductImage(UUID productId, MultipartFile file) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
-
         validateFile(file);
 
-        String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
-        String extension = getFileExtension(originalFilename);
-        String newFilename = productId + "_" + UUID.randomUUID() + "." + extension;
+        try (InputStream in = file.getInputStream()) {
+            return uploadProductImage(productId, StringUtils.cleanPath(file.getOriginalFilename()), in, file.getSize());
+        } catch (IOException e) {
+            throw new BadRequestException("Failed to store file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stores an image read from a stream in one pass: the type is checked from the first
+     * bytes, and the content is hashed while it is written to a temporary file in the upload
+     * directory, which is then renamed into place. The stream is read before the transaction
+     * starts, so a slow client does not hold a database connection.
+     *
+     * @param fileName      name to keep for the image; derived from its type when {@code null}
+     * @param contentLength declared length, or -1 if unknown; the limit is enforced either way
+     */
+    public ProductImage uploadProductImage(UUID productId, String fileName, InputStream content, long contentLength) {
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Product not found with id: " + productId);
+        }
+        if (contentLength > MAX_FILE_SIZE) {
+            throw new BadRequestException("File size exceeds maximum allowed size (5MB)");
+        }
+        if (fileName != null) {
+            fileName = StringUtils.cleanPath(fileName);
+            validateFileName(fileName);
+        }
 
+        Received received = receive(content);
         try {
-            Path targetLocation = Paths.get(uploadDir).resolve(newFilename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            String originalFilename = fileName != null
+                    ? fileName
+                    : "image." + received.contentType().substring(received.contentType().indexOf('/') + 1);
+            return transactionTemplate.execute(status -> store(productId, originalFilename, received));
+        } finally {
+            deleteQuietly(received.file());
+        }
+    }
 
-            ProductImage image = ProductImage.builder()
-                    .product(product)
-                    .fileName(originalFilename)
-                    .filePath(targetLocation.toString())
-                    .build();
+    private record Received(Path file, String contentType, long size, String contentHash) {
+    }
 
-            image = productImageRepository.save(image);
-            log.info("Uploaded image {} for product {}", newFilename, productId);
-            return image;
+    private Received receive(InputStream content) {
+        Path tempFile = null;
+        try {
+            InputStream in = new BufferedInputStream(limited(content, MAX_FILE_SIZE));
+            in.mark(SNIFF_BYTES);
+            String contentType = detectContentType(in.readNBytes(SNIFF_BYTES));
+            in.reset();
+            if (contentType == null) {
+                throw new BadRequestException("File content is not a JPEG, PNG, GIF or WebP image");
+            }
+            MessageDigest digest = sha256();
+            tempFile = Files.createTempFile(tempDir, "upload-", ".part");
+            long size = Files.copy(new DigestInputStream(in, digest), tempFile, StandardCopyOption.REPLACE_EXISTING);
+            return new Received(tempFile, contentType, size, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException e) {
+            deleteQuietly(tempFile);
+            throw new BadRequestException("Failed to store file: " + e.getMessage());
+        } catch (RuntimeException e) {
+            deleteQuietly(tempFile);
+            throw e;
+        }
+    }
 
+    private ProductImage store(UUID productId, String originalFilename, Received received) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
+        Path targetLocation = contentAddressed
+                ? blobPath(received.contentHash())
+                : uploadDir.resolve(productId + "_" + UUID.randomUUID() + "." + getFileExtension(originalFilename));
+        boolean stored;
+        try {
+            stored = moveIntoPlace(received.file(), targetLocation);
         } catch (IOException e) {
             throw new BadRequestException("Failed to store file: " + e.getMessage());
         }
+
+        ProductImage image = ProductImage.builder()
+                .product(product)
+                .fileName(originalFilename)
+                .filePath(targetLocation.toString())
+                .contentType(received.contentType())
+                .sizeBytes(received.size())
+                .contentHash(received.contentHash())
+                .build();
+
+        image = productImageRepository.save(image);
+        generateVariantsAfterCommit(received.contentHash(), targetLocation);
+        log.info("Uploaded image {} for product {}{}", targetLocation.getFileName(), productId,
+                stored ? "" : " (already stored)");
+        return image;
+    }
+
+    /**
+     * Fails the upload as soon as more than {@code limit} bytes have been read, instead of
+     * trusting the declared length.
+     */
+    private static InputStream limited(InputStream in, long limit) {
+        return new FilterInputStream(in) {
+            private long remaining = limit;
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    count(1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) {
+                    count(n);
+                }
+                return n;
+            }
+
+            private void count(int n) {
+                remaining -= n;
+                if (remaining < 0) {
+                    throw new BadRequestException("File size exceeds maximum allowed size (5MB)");
+                }
+            }
+        };
+    }
+
+    /**
+     * Moves a fully written upload to its final path, unless an identical file is already
+     * there. Returns whether the file was moved. A file moved here is removed again if the
+     * upload's transaction rolls back and nothing else has come to reference it.
+     */
+    private boolean moveIntoPlace(Path tempFile, Path target) throws IOException {
+        lockFile(target.toString());
+        if (Files.exists(target)) {
+            return false;
+        }
+        Files.createDirectories(target.getParent());
+        Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+        removeUnreferencedAfter(TransactionSynchronization.STATUS_ROLLED_BACK,
+                List.of(new StoredFile(target.toString(), null)));
+        return true;
+    }
+
+    private void generateVariantsAfterCommit(String contentHash, Path file) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                imageVariantService.generateInBackground(contentHash, file);
+            }
+        });
     }
 
-    public Resource loadFileAsResource(UUID imageId) {
+    private Path blobPath(String contentHash) {
+        return blobDir.resolve(contentHash.substring(0, 2)).resolve(contentHash.substring(2, 4)).resolve(contentHash);
+    }
+
+    /**
+     * Everything needed to serve an image, cached so repeat requests skip the database.
+     * Images stored before content type and hash were recorded get them filled in here.
+     */
+    @Transactional
+    @Cacheable(value = IMAGE_CACHE, key = "#imageId")
+    public ImageFile getImageFile(UUID imageId) {
         ProductImage image = productImageRepository.findById(imageId)
                 .orElseThrow(() -> new ResourceNotFoundException("Image not found with id: " + imageId));
+        Path path = Paths.get(image.getFilePath());
+        if (image.getContentHash() == null) {
+            describeStoredFile(image, path);
+        }
+        Instant lastModified = image.getUploadedAt() != null
+                ? image.getUploadedAt().atZone(ZoneId.systemDefault()).toInstant()
+                : Instant.EPOCH;
+        return new ImageFile(image.getId(), image.getProduct().getId(), image.getFileName(), path,
+                image.getContentType(), image.getSizeBytes(), image.getContentHash(), lastModified);
+    }
 
-        try {
-            Path filePath = Paths.get(image.getFilePath());
-            Resource resource = new UrlResource(filePath.toUri());
+    public record ImageFile(UUID id, UUID productId, String fileName, Path path,
+                            String contentType, long size, String contentHash, Instant lastModified) {
+    }
 
-            if (resource.exists()) {
-                return resource;
-            } else {
-                throw new ResourceNotFoundException("File not found: " + image.getFileName());
-            }
-        } catch (MalformedURLException e) {
+    private void describeStoredFile(ProductImage image, Path path) {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            in.mark(SNIFF_BYTES);
+            String contentType = detectContentType(in.readNBytes(SNIFF_BYTES));
+            in.reset();
+            MessageDigest digest = sha256();
+            long size = new DigestInputStream(in, digest).transferTo(OutputStream.nullOutputStream());
+            image.setContentType(contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            image.setSizeBytes(size);
+            image.setContentHash(HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException e) {
             throw new ResourceNotFoundException("File not found: " + image.getFileName());
         }
     }
 
     @Transactional
+    @CacheEvict(value = IMAGE_CACHE, key = "#imageId")
     public void deleteProductImage(UUID imageId) {
         ProductImage image = productImageRepository.findById(imageId)
                 .orElseThrow(() -> new ResourceNotFoundException("Image not found with id: " + imageId));
 
+        productImageRepository.delete(image);
+        removeUnreferencedAfter(TransactionSynchronization.STATUS_COMMITTED,
+                List.of(new StoredFile(image.getFilePath(), image.getContentHash())));
+        log.info("Deleted image with ID: {}", imageId);
+    }
+
+    /**
+     * Releases the files of a product's images once the transaction deleting the product
+     * commits. The image rows themselves go with the product.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @CacheEvict(value = IMAGE_CACHE, allEntries = true)
+    public void releaseProductImages(UUID productId) {
+        List<StoredFile> files = productImageRepository.findStoredFilesByProductId(productId).stream()
+                .map(ref -> new StoredFile(ref.getFilePath(), ref.getContentHash()))
+                .toList();
+        if (!files.isEmpty()) {
+            removeUnreferencedAfter(TransactionSynchronization.STATUS_COMMITTED, files);
+        }
+    }
+
+    private record StoredFile(String filePath, String contentHash) {
+    }
+
+    private void removeUnreferencedAfter(int outcome, Collection<StoredFile> files) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == outcome) {
+                    files.forEach(FileStorageService.this::removeIfUnreferenced);
+                }
+            }
+        });
+    }
+
+    /**
+     * Deletes a file once no image points at it, and the variants of its content once no
+     * image has that content.
+     */
+    private void removeIfUnreferenced(StoredFile file) {
         try {
-            Path filePath = Paths.get(image.getFilePath());
-            Files.deleteIfExists(filePath);
-        } catch (IOException e) {
-            log.error("Failed to delete file: {}", image.getFilePath(), e);
+            cleanupTransaction.executeWithoutResult(status -> {
+                lockFile(file.filePath());
+                if (productImageRepository.countByFilePath(file.filePath()) > 0) {
+                    return;
+                }
+                try {
+                    Files.deleteIfExists(Paths.get(file.filePath()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                log.debug("Removed unreferenced image file {}", file.filePath());
+                if (file.contentHash() != null && productImageRepository.countByContentHash(file.contentHash()) == 0) {
+                    imageVariantService.deleteVariants(file.contentHash());
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to delete file: {}", file.filePath(), e);
         }
+    }
 
-        productImageRepository.delete(image);
-        log.info("Deleted image with ID: {}", imageId);
+    private void lockFile(String filePath) {
+        jdbcTemplate.query(LOCK_FILE_SQL, new MapSqlParameterSource("path", filePath), rs -> {
+        });
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete temporary file {}", path, e);
+        }
     }
 
     private void validateFile(MultipartFile file) {
@@ -128,12 +408,55 @@ public class FileStorageService {
             throw new BadRequestException("Filename is required");
         }
 
+        validateFileName(filename);
+    }
+
+    private void validateFileName(String filename) {
         String extension = getFileExtension(filename).toLowerCase();
         if (!ALLOWED_EXTENSIONS.contains(extension)) {
             throw new BadRequestException("File type not allowed. Allowed types: " + ALLOWED_EXTENSIONS);
         }
     }
 
+    /**
+     * Identifies the image format from its leading bytes rather than trusting the file name.
+     */
+    static String detectContentType(byte[] header) {
+        if (startsWith(header, 0, 0xFF, 0xD8, 0xFF)) {
+            return MediaType.IMAGE_JPEG_VALUE;
+        }
+        if (startsWith(header, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return MediaType.IMAGE_PNG_VALUE;
+        }
+        if (startsWith(header, 0, 'G', 'I', 'F', '8')) {
+            return MediaType.IMAGE_GIF_VALUE;
+        }
+        if (startsWith(header, 0, 'R', 'I', 'F', 'F') && startsWith(header, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, int... expected) {
+        if (bytes.length < offset + expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if ((bytes[offset + i] & 0xFF) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private String getFileExtension(String filename) {
         int lastDotIndex = filename.lastIndexOf('.');
         if (lastDotIndex == -1) {
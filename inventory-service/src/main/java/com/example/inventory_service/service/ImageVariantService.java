@@ -0,0 +1,290 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.config.AsyncConfig;
+import com.example.inventory_service.exception.BadRequestException;
+import com.example.inventory_service.service.FileStorageService.ImageFile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+/**
+ * Makes and caches scaled-down variants of product images, so list pages can load a small
+ * thumbnail instead of the original. Variants are files under {@code variants/<size>/}
+ * named by the original's content hash, shared by every image with the same bytes like the
+ * originals are.
+ * <p>
+ * Variants are queued on the image executor when an image is uploaded and made on first
+ * request if they are not there yet. Both paths share one in-flight task per file. JPEG is
+ * written for opaque images and PNG for images with transparency; the JDK has no WebP
+ * encoder. An image already within the size is served as the original, without a copy
+ * under {@code variants/}. An image that cannot be decoded, such as a WebP upload, is
+ * served as it is too, but that is not cached, so a later request tries again.
+ */
+@Service
+@Slf4j
+public class ImageVariantService {
+
+    public static final String VARIANT_CACHE = "productImageVariants";
+
+    public enum ImageSize {
+        THUMB("thumb", 200),
+        MEDIUM("medium", 800),
+        FULL("full", 0);
+
+        private final String label;
+        private final int maxDimension;
+
+        ImageSize(String label, int maxDimension) {
+            this.label = label;
+            this.maxDimension = maxDimension;
+        }
+
+        public static ImageSize parse(String value) {
+            for (ImageSize size : values()) {
+                if (size.label.equalsIgnoreCase(value)) {
+                    return size;
+                }
+            }
+            throw new BadRequestException("Unsupported size: " + value + " (use thumb, medium or full)");
+        }
+    }
+
+    private final ExecutorService executor;
+    private final Path variantDir;
+    private final float jpegQuality;
+    private final long maxPixels;
+    private final ConcurrentMap<Path, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    public ImageVariantService(@Qualifier(AsyncConfig.IMAGE_EXECUTOR) ExecutorService executor,
+            @Value("${file.upload-dir:uploads/products}") String uploadDir,
+            @Value("${file.variants.jpeg-quality:0.82}") float jpegQuality,
+            @Value("${file.variants.max-pixels:50000000}") long maxPixels) {
+        this.executor = executor;
+        this.variantDir = Paths.get(uploadDir).resolve("variants");
+        this.jpegQuality = jpegQuality;
+        this.maxPixels = maxPixels;
+        // decode and encode in memory instead of through temporary files
+        ImageIO.setUseCache(false);
+    }
+
+    /**
+     * Queues the variants of a newly stored image. When the executor is busy they are left
+     * to be made on first request.
+     */
+    public void generateInBackground(String contentHash, Path original) {
+        for (ImageSize size : ImageSize.values()) {
+            if (size != ImageSize.FULL) {
+                generation(original, variantPath(contentHash, size), size, false);
+            }
+        }
+    }
+
+    /**
+     * The file to serve for the requested size, made now if it is not cached yet. That is the
+     * original itself for {@code full} and for images already within the size. Empty when no
+     * variant can be made; the caller serves the original, and the next request tries again.
+     */
+    @Cacheable(value = VARIANT_CACHE, key = "#original.id() + ':' + #size", unless = "#result == null")
+    public Optional<ImageFile> variant(ImageFile original, ImageSize size) {
+        if (size == ImageSize.FULL) {
+            return Optional.of(original);
+        }
+        Path target = variantPath(original.contentHash(), size);
+        try {
+            if (!Files.exists(target) && !generation(original.path(), target, size, true).join()) {
+                return Optional.of(original);
+            }
+            byte[] header;
+            try (InputStream in = Files.newInputStream(target)) {
+                header = in.readNBytes(FileStorageService.SNIFF_BYTES);
+            }
+            String contentType = FileStorageService.detectContentType(header);
+            return Optional.of(new ImageFile(original.id(), original.productId(), original.fileName(), target,
+                    contentType != null ? contentType : original.contentType(), Files.size(target),
+                    original.contentHash() + "-" + size.label, original.lastModified()));
+        } catch (IOException | CompletionException e) {
+            log.warn("Serving original of image {} instead of its {} variant: {}", original.id(), size.label,
+                    (e instanceof CompletionException ? e.getCause() : e).toString());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Removes the variants of content no image refers to any more.
+     */
+    public void deleteVariants(String contentHash) {
+        for (ImageSize size : ImageSize.values()) {
+            if (size != ImageSize.FULL) {
+                try {
+                    Files.deleteIfExists(variantPath(contentHash, size));
+                } catch (IOException e) {
+                    log.error("Failed to delete {} variant of {}", size.label, contentHash, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts making one variant file, or joins the task already making it. The task completes
+     * with {@code false} when the image already fits and no file is made. When the executor
+     * is full the task runs on the calling thread if the caller waits for it, and is skipped
+     * otherwise.
+     */
+    private CompletableFuture<Boolean> generation(Path source, Path target, ImageSize size, boolean wait) {
+        CompletableFuture<Boolean> created = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing = inFlight.putIfAbsent(target, created);
+        if (existing != null) {
+            return existing;
+        }
+        Runnable task = () -> {
+            try {
+                created.complete(generate(source, target, size));
+            } catch (Exception | OutOfMemoryError e) {
+                created.completeExceptionally(e);
+                if (!wait) {
+                    log.warn("Failed to make {} variant of {}: {}", size.label, source, e.toString());
+                }
+            } finally {
+                inFlight.remove(target, created);
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (wait) {
+                task.run();
+            } else {
+                inFlight.remove(target, created);
+                created.completeExceptionally(e);
+                log.debug("Image executor busy, {} variant of {} left for first request", size.label, source);
+            }
+        }
+        return created;
+    }
+
+    private boolean generate(Path source, Path target, ImageSize size) throws IOException {
+        if (Files.exists(target)) {
+            return true;
+        }
+        BufferedImage scaled = readScaled(source, size.maxDimension);
+        if (scaled == null) {
+            return false;
+        }
+        Files.createDirectories(target.getParent());
+        Path tempFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+        try {
+            write(scaled, tempFile);
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the image scaled to fit a square of the given size, or returns {@code null} if
+     * it already fits. Large images are subsampled while decoding, so only about twice the
+     * target resolution is ever held in memory.
+     */
+    private BufferedImage readScaled(Path source, int maxDimension) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("No image decoder for " + source.getFileName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IOException("Image too large to scale: " + width + "x" + height);
+                }
+                double scale = (double) maxDimension / Math.max(width, height);
+                if (scale >= 1) {
+                    return null;
+                }
+                int subsampling = Math.max(1, (int) (1 / scale / 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+                return resize(decoded, Math.max(1, (int) Math.round(width * scale)),
+                        Math.max(1, (int) Math.round(height * scale)));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Halves the image until it is within twice the target size, then scales to the target,
+     * which keeps bilinear filtering from skipping source pixels.
+     */
+    private static BufferedImage resize(BufferedImage image, int width, int height) {
+        boolean alpha = image.getColorModel().hasAlpha();
+        BufferedImage current = image;
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2, alpha);
+        }
+        return draw(current, width, height, alpha);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage target = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void write(BufferedImage image, Path target) throws IOException {
+        if (image.getColorModel().hasAlpha()) {
+            ImageIO.write(image, "png", target.toFile());
+            return;
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private Path variantPath(String contentHash, ImageSize size) {
+        return variantDir.resolve(size.label).resolve(contentHash.substring(0, 2))
+                .resolve(contentHash.substring(2, 4)).resolve(contentHash);
+    }
+}
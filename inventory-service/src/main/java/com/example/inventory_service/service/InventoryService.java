@@ -10,15 +10,19 @@ import com.example.inventory_service.model.StockMovement;
 import com.example.inventory_service.model.Warehouse;
 import com.example.inventory_service.repository.InventoryStockRepository;
 import com.example.inventory_service.repository.StockMovementRepository;
+import com.example.inventory_service.service.StockMutationService.BatchLineResult;
+import com.example.inventory_service.service.StockMutationService.StockDelta;
+import com.example.inventory_service.service.StockMutationService.StockKey;
+import com.example.inventory_service.service.StockMutationService.StockLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,52 +30,125 @@ import java.util.stream.Collectors;
 @Slf4j
 public class InventoryService {
 
+    private static final String BATCH_LINE_APPLIED = "APPLIED";
+    private static final String BATCH_LINE_REJECTED = "REJECTED";
+
     private final InventoryStockRepository inventoryStockRepository;
     private final StockMovementRepository stockMovementRepository;
     private final ProductService productService;
     private final WarehouseService warehouseService;
-    private final EmailService emailService;
+    private final LowStockAlertTracker lowStockAlertTracker;
+    private final LowStockIndex lowStockIndex;
+    private final StockMutationService stockMutationService;
+    private final ProcessedEventIndex processedEventIndex;
+    private final StockFlowRollupService stockFlowRollupService;
+    private final TopMovedProductsTracker topMovedProductsTracker;
 
     public Page<StockResponseDTO> getAllInventory(Pageable pageable) {
         return inventoryStockRepository.findAllWithDetails(pageable)
                 .map(StockResponseDTO::fromEntity);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageDTO<StockResponseDTO> scrollInventory(String cursor, int size) {
+        int pageSize = KeysetCursor.pageSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor, 1);
+        Limit limit = Limit.of(pageSize + 1);
+        List<InventoryStock> rows = after == null
+                ? inventoryStockRepository.findFirstKeysetPage(limit)
+                : inventoryStockRepository.findKeysetPageAfter(after.getUuid(0), limit);
+        return CursorPageDTO.of(rows, pageSize, StockResponseDTO::fromEntity,
+                stock -> KeysetCursor.encode(stock.getId()));
+    }
+
     @Transactional
     public StockResponseDTO adjustStock(StockAdjustRequestDTO dto) {
         Product product = productService.getProductEntityById(dto.getProductId());
         Warehouse warehouse = warehouseService.getWarehouseEntityById(dto.getWarehouseId());
 
-        InventoryStock stock = inventoryStockRepository
-                .findByProductIdAndWarehouseId(dto.getProductId(), dto.getWarehouseId())
-                .orElse(InventoryStock.builder()
-                        .product(product)
-                        .warehouse(warehouse)
-                        .quantity(0)
-                        .build());
-
-        int newQuantity = stock.getQuantity() + dto.getQuantity();
-        if (newQuantity < 0) {
-            throw new InsufficientStockException("Insufficient stock. Current: " + stock.getQuantity() + ", Requested adjustment: " + dto.getQuantity());
+        StockLevel stock;
+        try {
+            stock = stockMutationService.apply(dto.getProductId(), dto.getWarehouseId(), dto.getQuantity());
+        } catch (ResourceNotFoundException e) {
+            throw new InsufficientStockException("Insufficient stock. Current: 0, Requested adjustment: " + dto.getQuantity());
         }
 
-        stock.setQuantity(newQuantity);
-        stock = inventoryStockRepository.save(stock);
-
-        StockMovement.MovementType type = dto.getQuantity() > 0 ?
-                StockMovement.MovementType.IN : StockMovement.MovementType.OUT;
-
         if (dto.getQuantity() != 0) {
             createMovementRecord(dto.getProductId(), dto.getWarehouseId(),
                     StockMovement.MovementType.ADJUST, Math.abs(dto.getQuantity()),
                     null, dto.getReason());
         }
 
-        checkLowStock(stock, product);
+        checkLowStock(product, dto.getWarehouseId(), stock.quantity());
 
         log.info("Adjusted stock for product {} in warehouse {} by {}",
                 dto.getProductId(), dto.getWarehouseId(), dto.getQuantity());
-        return StockResponseDTO.fromEntity(stock);
+        return toStockResponse(product, warehouse, stock);
+    }
+
+    @Transactional
+    public StockAdjustBatchResponseDTO adjustStockBatch(StockAdjustBatchRequestDTO request) {
+        List<StockAdjustRequestDTO> lines = request.getAdjustments();
+        Map<UUID, Product> products = productService.getProductEntitiesByIds(lines.stream()
+                .map(StockAdjustRequestDTO::getProductId)
+                .collect(Collectors.toSet()));
+        Map<UUID, Warehouse> warehouses = warehouseService.getWarehouseEntitiesByIds(lines.stream()
+                .map(StockAdjustRequestDTO::getWarehouseId)
+                .collect(Collectors.toSet()));
+
+        StockAdjustLineResultDTO[] results = new StockAdjustLineResultDTO[lines.size()];
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<StockDelta> deltas = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            StockAdjustRequestDTO line = lines.get(i);
+            if (!products.containsKey(line.getProductId())) {
+                results[i] = lineResult(i, line, BATCH_LINE_REJECTED, null,
+                        "Product not found with id: " + line.getProductId());
+            } else if (!warehouses.containsKey(line.getWarehouseId())) {
+                results[i] = lineResult(i, line, BATCH_LINE_REJECTED, null,
+                        "Warehouse not found with id: " + line.getWarehouseId());
+            } else {
+                acceptedIndexes.add(i);
+                deltas.add(new StockDelta(line.getProductId(), line.getWarehouseId(), line.getQuantity()));
+            }
+        }
+
+        List<BatchLineResult> outcomes = stockMutationService.applyBatch(deltas);
+
+        List<StockMovement> movements = new ArrayList<>();
+        Map<StockKey, Integer> finalQuantities = new LinkedHashMap<>();
+        for (int j = 0; j < acceptedIndexes.size(); j++) {
+            int index = acceptedIndexes.get(j);
+            StockAdjustRequestDTO line = lines.get(index);
+            BatchLineResult outcome = outcomes.get(j);
+            if (!outcome.applied()) {
+                results[index] = lineResult(index, line, BATCH_LINE_REJECTED, outcome.quantity(),
+                        "Insufficient stock. Current: " + outcome.quantity() + ", Requested adjustment: " + line.getQuantity());
+                continue;
+            }
+            results[index] = lineResult(index, line, BATCH_LINE_APPLIED, outcome.quantity(), null);
+            finalQuantities.put(deltas.get(j).key(), outcome.quantity());
+            if (line.getQuantity() != 0) {
+                movements.add(buildMovement(line.getProductId(), line.getWarehouseId(),
+                        StockMovement.MovementType.ADJUST, Math.abs(line.getQuantity()), null, line.getReason()));
+            }
+        }
+        saveMovements(movements);
+
+        finalQuantities.forEach((key, quantity) ->
+                checkLowStock(products.get(key.productId()), key.warehouseId(), quantity));
+
+        int applied = (int) Arrays.stream(results)
+                .filter(result -> BATCH_LINE_APPLIED.equals(result.getStatus()))
+                .count();
+        log.info("Applied batch stock adjustment: {} of {} lines applied across {} stock rows",
+                applied, lines.size(), finalQuantities.size());
+        return StockAdjustBatchResponseDTO.builder()
+                .totalLines(lines.size())
+                .appliedLines(applied)
+                .rejectedLines(lines.size() - applied)
+                .results(Arrays.asList(results))
+                .build();
     }
 
     @Transactional
@@ -81,30 +158,18 @@ public class InventoryService {
         }
 
         Product product = productService.getProductEntityById(dto.getProductId());
-        Warehouse sourceWarehouse = warehouseService.getWarehouseEntityById(dto.getSourceWarehouseId());
+        warehouseService.getWarehouseEntityById(dto.getSourceWarehouseId());
         Warehouse destWarehouse = warehouseService.getWarehouseEntityById(dto.getDestinationWarehouseId());
 
-        InventoryStock sourceStock = inventoryStockRepository
-                .findByProductIdAndWarehouseId(dto.getProductId(), dto.getSourceWarehouseId())
-                .orElseThrow(() -> new ResourceNotFoundException("Stock not found in source warehouse"));
-
-        if (sourceStock.getQuantity() < dto.getQuantity()) {
-            throw new InsufficientStockException("Insufficient stock in source warehouse. Available: " + sourceStock.getQuantity());
+        StockLevel sourceStock;
+        try {
+            sourceStock = stockMutationService.decrease(dto.getProductId(), dto.getSourceWarehouseId(), dto.getQuantity());
+        } catch (ResourceNotFoundException e) {
+            throw new ResourceNotFoundException("Stock not found in source warehouse");
         }
 
-        sourceStock.setQuantity(sourceStock.getQuantity() - dto.getQuantity());
-        inventoryStockRepository.save(sourceStock);
-
-        InventoryStock destStock = inventoryStockRepository
-                .findByProductIdAndWarehouseId(dto.getProductId(), dto.getDestinationWarehouseId())
-                .orElse(InventoryStock.builder()
-                        .product(product)
-                        .warehouse(destWarehouse)
-                        .quantity(0)
-                        .build());
-
-        destStock.setQuantity(destStock.getQuantity() + dto.getQuantity());
-        destStock = inventoryStockRepository.save(destStock);
+        StockLevel destStock = stockMutationService.increase(
+                dto.getProductId(), dto.getDestinationWarehouseId(), dto.getQuantity());
 
         UUID transferId = UUID.randomUUID();
         createMovementRecord(dto.getProductId(), dto.getSourceWarehouseId(),
@@ -112,58 +177,170 @@ public class InventoryService {
         createMovementRecord(dto.getProductId(), dto.getDestinationWarehouseId(),
                 StockMovement.MovementType.TRANSFER_IN, dto.getQuantity(), transferId, dto.getReason());
 
-        checkLowStock(sourceStock, product);
+        checkLowStock(product, dto.getSourceWarehouseId(), sourceStock.quantity());
+        checkLowStock(product, dto.getDestinationWarehouseId(), destStock.quantity());
 
         log.info("Transferred {} units of product {} from warehouse {} to warehouse {}",
                 dto.getQuantity(), dto.getProductId(), dto.getSourceWarehouseId(), dto.getDestinationWarehouseId());
-        return StockResponseDTO.fromEntity(destStock);
+        return toStockResponse(product, destWarehouse, destStock);
     }
 
     @Transactional
-    public void processStockIn(UUID productId, UUID warehouseId, Integer quantity, UUID referenceId) {
-        Product product = productService.getProductEntityById(productId);
-        Warehouse warehouse = warehouseService.getWarehouseEntityById(warehouseId);
+    public void processStockIn(UUID eventId, UUID productId, UUID warehouseId, Integer quantity, UUID referenceId) {
+        if (!processedEventIndex.claim(eventId)) {
+            log.info("Stock IN event {} was already processed, skipping", eventId);
+            return;
+        }
 
-        InventoryStock stock = inventoryStockRepository
-                .findByProductIdAndWarehouseId(productId, warehouseId)
-                .orElse(InventoryStock.builder()
-                        .product(product)
-                        .warehouse(warehouse)
-                        .quantity(0)
-                        .build());
+        Product product = productService.getProductEntityById(productId);
+        warehouseService.getWarehouseEntityById(warehouseId);
 
-        stock.setQuantity(stock.getQuantity() + quantity);
-        inventoryStockRepository.save(stock);
+        StockLevel stock = stockMutationService.increase(productId, warehouseId, quantity);
 
         createMovementRecord(productId, warehouseId, StockMovement.MovementType.IN,
                 quantity, referenceId, "Purchase order received");
 
+        checkLowStock(product, warehouseId, stock.quantity());
+
         log.info("Stock IN: {} units of product {} in warehouse {}", quantity, productId, warehouseId);
     }
 
     @Transactional
-    public void processStockOut(UUID productId, UUID warehouseId, Integer quantity, UUID referenceId) {
-        Product product = productService.getProductEntityById(productId);
-
-        InventoryStock stock = inventoryStockRepository
-                .findByProductIdAndWarehouseId(productId, warehouseId)
-                .orElseThrow(() -> new ResourceNotFoundException("Stock not found"));
-
-        if (stock.getQuantity() < quantity) {
-            throw new InsufficientStockException("Insufficient stock. Available: " + stock.getQuantity());
+    public void processStockOut(UUID eventId, UUID productId, UUID warehouseId, Integer quantity, UUID referenceId) {
+        if (!processedEventIndex.claim(eventId)) {
+            log.info("Stock OUT event {} was already processed, skipping", eventId);
+            return;
         }
 
-        stock.setQuantity(stock.getQuantity() - quantity);
-        inventoryStockRepository.save(stock);
+        Product product = productService.getProductEntityById(productId);
+
+        StockLevel stock = stockMutationService.decrease(productId, warehouseId, quantity);
 
         createMovementRecord(productId, warehouseId, StockMovement.MovementType.OUT,
                 quantity, referenceId, "Sales order confirmed");
 
-        checkLowStock(stock, product);
+        checkLowStock(product, warehouseId, stock.quantity());
 
         log.info("Stock OUT: {} units of product {} from warehouse {}", quantity, productId, warehouseId);
     }
 
+    /**
+     * Applies a batch of stock events in one transaction. Per product/warehouse pair the
+     * events are checked in arrival order, and each pair is written once with its net change.
+     * Stock-out events that would take stock below zero are rejected and skipped, and
+     * events that were already processed (redeliveries) are dropped before anything is applied.
+     */
+    @Transactional
+    public int processStockEventBatch(List<StockEventDTO> batch) {
+        Set<UUID> claimed = processedEventIndex.claimAll(batch.stream()
+                .map(StockEventDTO::getEventId)
+                .toList());
+        List<StockEventDTO> events = batch.stream()
+                .filter(event -> event.getEventId() == null || claimed.remove(event.getEventId()))
+                .toList();
+
+        Map<UUID, Product> products = productService.getProductEntitiesByIds(events.stream()
+                .map(StockEventDTO::getProductId)
+                .collect(Collectors.toSet()));
+        Map<UUID, Warehouse> warehouses = warehouseService.getWarehouseEntitiesByIds(events.stream()
+                .map(StockEventDTO::getWarehouseId)
+                .collect(Collectors.toSet()));
+
+        List<StockEventDTO> accepted = new ArrayList<>(events.size());
+        List<StockDelta> deltas = new ArrayList<>(events.size());
+        for (StockEventDTO event : events) {
+            if (!products.containsKey(event.getProductId()) || !warehouses.containsKey(event.getWarehouseId())) {
+                log.error("Skipping stock event {}: unknown product {} or warehouse {}",
+                        event.getEventId(), event.getProductId(), event.getWarehouseId());
+                continue;
+            }
+            accepted.add(event);
+            deltas.add(new StockDelta(event.getProductId(), event.getWarehouseId(),
+                    isStockIn(event) ? event.getQuantity() : -event.getQuantity()));
+        }
+
+        List<BatchLineResult> outcomes = stockMutationService.applyBatch(deltas);
+
+        List<StockMovement> movements = new ArrayList<>(accepted.size());
+        Map<StockKey, Integer> finalQuantities = new HashMap<>();
+        for (int i = 0; i < accepted.size(); i++) {
+            StockEventDTO event = accepted.get(i);
+            BatchLineResult outcome = outcomes.get(i);
+            if (!outcome.applied()) {
+                log.error("Rejected stock OUT event {}: insufficient stock. Available: {}, Requested: {}",
+                        event.getEventId(), outcome.quantity(), event.getQuantity());
+                continue;
+            }
+            finalQuantities.put(deltas.get(i).key(), outcome.quantity());
+            movements.add(eventMovement(isStockIn(event), event.getProductId(), event.getWarehouseId(),
+                    event.getQuantity(), event.getReferenceId()));
+        }
+        saveMovements(movements);
+
+        finalQuantities.forEach((key, quantity) ->
+                checkLowStock(products.get(key.productId()), key.warehouseId(), quantity));
+
+        log.info("Stock event batch: {} of {} events applied", movements.size(), batch.size());
+        return movements.size();
+    }
+
+    /**
+     * Applies every line of an order-level stock event as one unit: if any line names an
+     * unknown product or warehouse, or would take stock below zero, nothing is applied.
+     */
+    @Transactional
+    public void processStockOrderEvent(StockOrderEventDTO event) {
+        if (!processedEventIndex.claim(event.getEventId())) {
+            log.info("Stock order event {} was already processed, skipping", event.getEventId());
+            return;
+        }
+
+        boolean stockIn = StockEventDTO.STOCK_IN_EVENT.equals(event.getEventType());
+        List<StockOrderEventDTO.Item> items = event.getItems();
+        Map<UUID, Product> products = productService.getProductEntitiesByIds(items.stream()
+                .map(StockOrderEventDTO.Item::getProductId)
+                .collect(Collectors.toSet()));
+        Map<UUID, Warehouse> warehouses = warehouseService.getWarehouseEntitiesByIds(items.stream()
+                .map(StockOrderEventDTO.Item::getWarehouseId)
+                .collect(Collectors.toSet()));
+
+        List<StockDelta> deltas = new ArrayList<>(items.size());
+        for (StockOrderEventDTO.Item item : items) {
+            if (!products.containsKey(item.getProductId())) {
+                throw new ResourceNotFoundException("Product not found with id: " + item.getProductId());
+            }
+            if (!warehouses.containsKey(item.getWarehouseId())) {
+                throw new ResourceNotFoundException("Warehouse not found with id: " + item.getWarehouseId());
+            }
+            deltas.add(new StockDelta(item.getProductId(), item.getWarehouseId(),
+                    stockIn ? item.getQuantity() : -item.getQuantity()));
+        }
+
+        List<BatchLineResult> outcomes = stockMutationService.applyBatch(deltas);
+
+        List<StockMovement> movements = new ArrayList<>(items.size());
+        Map<StockKey, Integer> finalQuantities = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            StockOrderEventDTO.Item item = items.get(i);
+            BatchLineResult outcome = outcomes.get(i);
+            if (!outcome.applied()) {
+                throw new InsufficientStockException("Insufficient stock for product " + item.getProductId()
+                        + " in warehouse " + item.getWarehouseId() + ". Available: " + outcome.quantity()
+                        + ", Requested: " + item.getQuantity());
+            }
+            finalQuantities.put(deltas.get(i).key(), outcome.quantity());
+            movements.add(eventMovement(stockIn, item.getProductId(), item.getWarehouseId(),
+                    item.getQuantity(), event.getReferenceId()));
+        }
+        saveMovements(movements);
+
+        finalQuantities.forEach((key, quantity) ->
+                checkLowStock(products.get(key.productId()), key.warehouseId(), quantity));
+
+        log.info("Stock {} order event {}: {} lines applied for reference {}",
+                stockIn ? "IN" : "OUT", event.getEventId(), items.size(), event.getReferenceId());
+    }
+
     public List<StockMovementResponseDTO> getStockMovements(UUID productId, UUID warehouseId, Pageable pageable) {
         Page<StockMovement> movements;
         if (productId != null && warehouseId != null) {
@@ -180,9 +357,37 @@ public class InventoryService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Newest movements first, resuming after the (createdAt, id) of the cursor row so deep
+     * pages cost the same as the first one.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<StockMovementResponseDTO> scrollStockMovements(UUID productId, UUID warehouseId,
+                                                                        String cursor, int size) {
+        int pageSize = KeysetCursor.pageSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor, 2);
+        List<StockMovement> rows = after == null
+                ? stockMovementRepository.findKeysetPage(productId, warehouseId, null, null, pageSize + 1)
+                : stockMovementRepository.findKeysetPage(productId, warehouseId,
+                        after.getTimestamp(0), after.getUuid(1), pageSize + 1);
+        return CursorPageDTO.of(rows, pageSize, StockMovementResponseDTO::fromEntity,
+                movement -> KeysetCursor.encode(movement.getCreatedAt(), movement.getId()));
+    }
+
     private void createMovementRecord(UUID productId, UUID warehouseId,
             StockMovement.MovementType type, Integer quantity, UUID referenceId, String reason) {
-        StockMovement movement = StockMovement.builder()
+        saveMovements(List.of(buildMovement(productId, warehouseId, type, quantity, referenceId, reason)));
+    }
+
+    private void saveMovements(List<StockMovement> movements) {
+        List<StockMovement> saved = stockMovementRepository.saveAll(movements);
+        stockFlowRollupService.recordMovements(saved);
+        topMovedProductsTracker.recordAfterCommit(saved);
+    }
+
+    private StockMovement buildMovement(UUID productId, UUID warehouseId,
+            StockMovement.MovementType type, Integer quantity, UUID referenceId, String reason) {
+        return StockMovement.builder()
                 .productId(productId)
                 .warehouseId(warehouseId)
                 .type(type)
@@ -190,15 +395,49 @@ public class InventoryService {
                 .referenceId(referenceId)
                 .reason(reason)
                 .build();
-        stockMovementRepository.save(movement);
     }
 
-    private void checkLowStock(InventoryStock stock, Product product) {
-        if (stock.getQuantity() <= product.getReorderLevel()) {
-            log.warn("Low stock alert: Product {} in warehouse {} has {} units (reorder level: {})",
-                    product.getSku(), stock.getWarehouse().getName(),
-                    stock.getQuantity(), product.getReorderLevel());
-            emailService.sendLowStockAlert(product, stock);
-        }
+    private StockMovement eventMovement(boolean stockIn, UUID productId, UUID warehouseId,
+            Integer quantity, UUID referenceId) {
+        return stockIn
+                ? buildMovement(productId, warehouseId, StockMovement.MovementType.IN, quantity, referenceId,
+                        "Purchase order received")
+                : buildMovement(productId, warehouseId, StockMovement.MovementType.OUT, quantity, referenceId,
+                        "Sales order confirmed");
+    }
+
+    private boolean isStockIn(StockEventDTO event) {
+        return StockEventDTO.STOCK_IN_EVENT.equals(event.getEventType());
+    }
+
+    private StockAdjustLineResultDTO lineResult(int index, StockAdjustRequestDTO line, String status,
+            Integer resultingQuantity, String message) {
+        return StockAdjustLineResultDTO.builder()
+                .index(index)
+                .productId(line.getProductId())
+                .warehouseId(line.getWarehouseId())
+                .adjustment(line.getQuantity())
+                .status(status)
+                .resultingQuantity(resultingQuantity)
+                .message(message)
+                .build();
+    }
+
+    private void checkLowStock(Product product, UUID warehouseId, int quantity) {
+        lowStockAlertTracker.record(product, warehouseId, quantity);
+        lowStockIndex.record(product.getId(), warehouseId);
+    }
+
+    private StockResponseDTO toStockResponse(Product product, Warehouse warehouse, StockLevel stock) {
+        return StockResponseDTO.builder()
+                .id(stock.stockId())
+                .productId(product.getId())
+                .productName(product.getName())
+                .productSku(product.getSku())
+                .warehouseId(warehouse.getId())
+                .warehouseName(warehouse.getName())
+                .quantity(stock.quantity())
+                .updatedAt(stock.updatedAt())
+                .build();
     }
 }
@@ -0,0 +1,310 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.AnalyticsSummaryDTO;
+import com.example.inventory_service.repository.InventoryStockRepository;
+import com.example.inventory_service.repository.ProductRepository;
+import com.example.inventory_service.repository.WarehouseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps the dashboard totals (stock units, stock value, active products, warehouses) in
+ * the striped {@code inventory_summary} table, so reading them is a sum over a handful of
+ * rows instead of aggregating the whole inventory.
+ * <p>
+ * Callers record changes inside their transaction. The changes are collected and written
+ * with one update just before commit, so they land exactly when the stock change does, and
+ * the summary row is always the last lock a transaction takes, which keeps it out of lock
+ * cycles with the inventory rows. A scheduled reconciliation recomputes the totals and
+ * corrects any drift, for example from stock rows changed outside the service.
+ */
+@Service
+@Slf4j
+public class InventorySummaryService {
+
+    private static final String SUMMARY_SQL = """
+            SELECT COALESCE(SUM(total_units), 0) AS total_units,
+                   COALESCE(SUM(total_value), 0) AS total_value,
+                   COALESCE(SUM(product_count), 0) AS product_count,
+                   COALESCE(SUM(warehouse_count), 0) AS warehouse_count
+            FROM inventory_summary
+            """;
+
+    private static final String APPLY_SQL = """
+            UPDATE inventory_summary
+            SET total_units = total_units + :units,
+                total_value = total_value + :value,
+                product_count = product_count + :products,
+                warehouse_count = warehouse_count + :warehouses
+            WHERE stripe = :stripe
+            """;
+
+    private static final String APPLY_WITH_STOCK_SQL = """
+            UPDATE inventory_summary s
+            SET total_units = s.total_units + :units + d.units,
+                total_value = s.total_value + :value + d.value,
+                product_count = s.product_count + :products,
+                warehouse_count = s.warehouse_count + :warehouses
+            FROM (SELECT COALESCE(SUM(v.delta), 0) AS units,
+                         COALESCE(SUM(v.delta * p.unit_price), 0) AS value
+                  FROM (VALUES :rows) AS v(product_id, delta)
+                  LEFT JOIN products p ON p.id = v.product_id) d
+            WHERE s.stripe = :stripe
+            """;
+
+    private static final String PRODUCTS_UNITS_SQL = """
+            SELECT product_id, SUM(quantity) AS units FROM inventory
+            WHERE product_id IN (:productIds)
+            GROUP BY product_id
+            """;
+
+    private static final String PRODUCT_STOCK_SQL = """
+            SELECT COALESCE(SUM(i.quantity), 0) AS units,
+                   COALESCE(SUM(i.quantity * p.unit_price), 0) AS value
+            FROM inventory i JOIN products p ON p.id = i.product_id
+            WHERE i.product_id = :productId
+            """;
+
+    private static final String LOCK_PRODUCTS_SQL = """
+            SELECT pg_advisory_xact_lock(hashtextextended('inventory_summary:' || k.product_id, 0))
+            FROM (SELECT v.product_id FROM (VALUES :productIds) AS v(product_id) ORDER BY v.product_id) k
+            """;
+
+    private static final String SEED_SQL = """
+            INSERT INTO inventory_summary (stripe, total_units, total_value, product_count, warehouse_count)
+            SELECT s, 0, 0, 0, 0 FROM generate_series(0, :last) AS s
+            ON CONFLICT (stripe) DO NOTHING
+            """;
+
+    private static final String LOCK_SQL = "SELECT stripe FROM inventory_summary ORDER BY stripe FOR UPDATE";
+
+    private static final String RESET_SQL = """
+            UPDATE inventory_summary
+            SET total_units = CASE WHEN stripe = 0 THEN :units ELSE 0 END,
+                total_value = CASE WHEN stripe = 0 THEN :value ELSE 0 END,
+                product_count = CASE WHEN stripe = 0 THEN :products ELSE 0 END,
+                warehouse_count = CASE WHEN stripe = 0 THEN :warehouses ELSE 0 END
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductRepository productRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final InventoryStockRepository inventoryStockRepository;
+    private final int stripes;
+
+    public InventorySummaryService(NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ProductRepository productRepository,
+            WarehouseRepository warehouseRepository,
+            InventoryStockRepository inventoryStockRepository,
+            @Value("${analytics.summary.stripes:16}") int stripes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productRepository = productRepository;
+        this.warehouseRepository = warehouseRepository;
+        this.inventoryStockRepository = inventoryStockRepository;
+        this.stripes = stripes;
+    }
+
+    public AnalyticsSummaryDTO getSummary() {
+        return jdbcTemplate.queryForObject(SUMMARY_SQL, Map.of(), (rs, rowNum) -> AnalyticsSummaryDTO.builder()
+                .totalProducts(rs.getLong("product_count"))
+                .totalWarehouses(rs.getLong("warehouse_count"))
+                .totalStockUnits(rs.getLong("total_units"))
+                .totalStockValue(rs.getBigDecimal("total_value"))
+                .build());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStockChange(UUID productId, int delta) {
+        pending().stock.merge(productId, delta, Integer::sum);
+    }
+
+    /**
+     * Records a price change. The value it adds is worked out just before commit, from the
+     * stock committed by then, rather than now.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPriceChange(UUID productId, BigDecimal oldPrice, BigDecimal newPrice) {
+        BigDecimal before = oldPrice != null ? oldPrice : BigDecimal.ZERO;
+        BigDecimal after = newPrice != null ? newPrice : BigDecimal.ZERO;
+        pending().prices.merge(productId, after.subtract(before), BigDecimal::add);
+    }
+
+    /**
+     * Bulk form of {@link #recordPriceChange}.
+     *
+     * @param priceDeltas new price minus old price, by product
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPriceChanges(Map<UUID, BigDecimal> priceDeltas) {
+        Pending pending = pending();
+        priceDeltas.forEach((productId, delta) -> pending.prices.merge(productId, delta, BigDecimal::add));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordProductAdded(boolean active) {
+        if (active) {
+            pending().products++;
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordProductActiveChange(boolean active) {
+        pending().products += active ? 1 : -1;
+    }
+
+    /**
+     * Call before deleting the product, while its stock rows still exist.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordProductRemoved(UUID productId, boolean active) {
+        Pending pending = pending();
+        jdbcTemplate.query(PRODUCT_STOCK_SQL, new MapSqlParameterSource("productId", productId), rs -> {
+            pending.units -= rs.getLong("units");
+            pending.value = pending.value.subtract(rs.getBigDecimal("value"));
+        });
+        if (active) {
+            pending.products--;
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordWarehouseAdded() {
+        pending().warehouses++;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        jdbcTemplate.update(SEED_SQL, new MapSqlParameterSource("last", stripes - 1));
+        reconcile();
+    }
+
+    /**
+     * Recomputes the totals from the source tables and folds them into stripe 0. All stripes
+     * are locked first: transactions that already wrote their stripe have committed by then
+     * and are counted, and the rest wait and apply their change on top of the new totals.
+     * <p>
+     * The aggregates run on the connection that holds the locks. Handing them to the shared
+     * analytics executor would put lock-holding work behind dashboard requests in its queue,
+     * while every stock change waits.
+     */
+    @Scheduled(fixedDelayString = "${analytics.summary.reconcile-interval-ms:3600000}",
+            initialDelayString = "${analytics.summary.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForList(LOCK_SQL, Map.of(), Integer.class);
+            AnalyticsSummaryDTO recorded = getSummary();
+            BigDecimal value = inventoryStockRepository.getTotalStockValue();
+            AnalyticsSummaryDTO actual = AnalyticsSummaryDTO.builder()
+                    .totalProducts(productRepository.countActiveProducts())
+                    .totalWarehouses(warehouseRepository.count())
+                    .totalStockUnits(inventoryStockRepository.getTotalStockUnits())
+                    .totalStockValue(value != null ? value : BigDecimal.ZERO)
+                    .build();
+            jdbcTemplate.update(RESET_SQL, new MapSqlParameterSource()
+                    .addValue("units", actual.getTotalStockUnits())
+                    .addValue("value", actual.getTotalStockValue())
+                    .addValue("products", actual.getTotalProducts())
+                    .addValue("warehouses", actual.getTotalWarehouses()));
+            if (!Objects.equals(recorded.getTotalStockUnits(), actual.getTotalStockUnits())
+                    || recorded.getTotalStockValue().compareTo(actual.getTotalStockValue()) != 0
+                    || !Objects.equals(recorded.getTotalProducts(), actual.getTotalProducts())
+                    || !Objects.equals(recorded.getTotalWarehouses(), actual.getTotalWarehouses())) {
+                log.warn("Corrected inventory summary drift: recorded {}, actual {}", recorded, actual);
+            }
+        });
+    }
+
+    private Pending pending() {
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    /**
+     * Changes recorded in the current transaction, written to one random stripe before commit.
+     * <p>
+     * Stock changes are priced at the committed unit price and price changes at the committed
+     * stock. A stock change and a price change for the same product committing side by side
+     * would otherwise each miss the other, or both count it. Before pricing, each transaction
+     * therefore takes a per-product advisory lock on every product it touches, in a fixed
+     * order. Whichever commits second sees the first one's change.
+     */
+    private final class Pending implements TransactionSynchronization {
+
+        private final Map<UUID, Integer> stock = new HashMap<>();
+        private final Map<UUID, BigDecimal> prices = new HashMap<>();
+        private long units;
+        private BigDecimal value = BigDecimal.ZERO;
+        private long products;
+        private long warehouses;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            stock.values().removeIf(delta -> delta == 0);
+            prices.values().removeIf(delta -> delta.signum() == 0);
+            lockProducts();
+            if (!prices.isEmpty()) {
+                jdbcTemplate.query(PRODUCTS_UNITS_SQL, new MapSqlParameterSource("productIds", prices.keySet()), rs -> {
+                    BigDecimal delta = prices.get(rs.getObject("product_id", UUID.class));
+                    value = value.add(delta.multiply(BigDecimal.valueOf(rs.getLong("units"))));
+                });
+            }
+
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("stripe", ThreadLocalRandom.current().nextInt(stripes))
+                    .addValue("units", units)
+                    .addValue("value", value)
+                    .addValue("products", products)
+                    .addValue("warehouses", warehouses);
+            List<Object[]> rows = stock.entrySet().stream()
+                    .map(entry -> new Object[]{entry.getKey(), entry.getValue()})
+                    .toList();
+            if (!rows.isEmpty()) {
+                jdbcTemplate.update(APPLY_WITH_STOCK_SQL, params.addValue("rows", rows));
+            } else if (units != 0 || value.signum() != 0 || products != 0 || warehouses != 0) {
+                jdbcTemplate.update(APPLY_SQL, params);
+            }
+        }
+
+        private void lockProducts() {
+            Set<UUID> productIds = new HashSet<>(stock.keySet());
+            productIds.addAll(prices.keySet());
+            if (productIds.isEmpty()) {
+                return;
+            }
+            List<Object[]> keys = productIds.stream()
+                    .map(productId -> new Object[]{productId.toString()})
+                    .toList();
+            jdbcTemplate.query(LOCK_PRODUCTS_SQL, new MapSqlParameterSource("productIds", keys), rs -> {
+            });
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(InventorySummaryService.this);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.LowStockDTO;
+import com.example.inventory_service.model.Product;
+import com.example.inventory_service.service.StockMutationService.StockKey;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns stock levels into low-stock alerts. A product/warehouse pair alerts once when its
+ * quantity drops to the reorder level and is re-armed only after it climbs back above the
+ * reorder level plus a margin, so stock hovering around the threshold does not alert on
+ * every sale. Alerts are collected and sent as one digest per interval.
+ * <p>
+ * State is kept in memory: after a restart, a pair that is still low alerts again on its
+ * next stock change.
+ */
+@Service
+@Slf4j
+public class LowStockAlertTracker {
+
+    private static final String LOW_STOCK_SQL = """
+            SELECT p.id AS product_id, p.name AS product_name, p.sku, p.reorder_level,
+                   w.id AS warehouse_id, w.name AS warehouse_name, i.quantity
+            FROM inventory i
+            JOIN products p ON p.id = i.product_id
+            JOIN warehouses w ON w.id = i.warehouse_id
+            WHERE (i.product_id, i.warehouse_id) IN (:keys)
+              AND i.quantity <= p.reorder_level
+            ORDER BY w.name, p.sku
+            """;
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final RowMapper<LowStockDTO> LOW_STOCK_MAPPER = (rs, rowNum) -> LowStockDTO.builder()
+            .productId(rs.getObject("product_id", UUID.class))
+            .productName(rs.getString("product_name"))
+            .productSku(rs.getString("sku"))
+            .warehouseId(rs.getObject("warehouse_id", UUID.class))
+            .warehouseName(rs.getString("warehouse_name"))
+            .currentQuantity(rs.getInt("quantity"))
+            .reorderLevel(rs.getInt("reorder_level"))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EmailService emailService;
+    private final double rearmRatio;
+
+    private final Set<StockKey> low = ConcurrentHashMap.newKeySet();
+    private final Set<StockKey> pending = ConcurrentHashMap.newKeySet();
+
+    public LowStockAlertTracker(NamedParameterJdbcTemplate jdbcTemplate,
+            EmailService emailService,
+            @Value("${alert.low-stock.rearm-ratio:0.2}") double rearmRatio) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.emailService = emailService;
+        this.rearmRatio = rearmRatio;
+    }
+
+    /**
+     * Records the quantity left after a stock change. Stock-ins must be recorded as well as
+     * stock-outs, since climbing back above the margin is what re-arms a pair. Cheap enough
+     * to call on every change: it touches only in-memory sets.
+     */
+    public void record(Product product, UUID warehouseId, int quantity) {
+        int reorderLevel = product.getReorderLevel();
+        StockKey key = new StockKey(product.getId(), warehouseId);
+        if (quantity <= reorderLevel) {
+            if (low.add(key)) {
+                pending.add(key);
+                log.warn("Low stock: product {} in warehouse {} has {} units (reorder level: {})",
+                        product.getSku(), warehouseId, quantity, reorderLevel);
+            }
+        } else if (quantity > rearmLevel(reorderLevel)) {
+            low.remove(key);
+        }
+    }
+
+    /**
+     * Sends one email for all pairs that crossed the threshold since the last digest.
+     * Levels are re-read in one query, so pairs that were restocked in the meantime, or
+     * whose stock change was rolled back, are left out and re-armed.
+     */
+    @Scheduled(fixedDelayString = "${alert.low-stock.digest-interval-ms:300000}",
+            initialDelayString = "${alert.low-stock.digest-interval-ms:300000}")
+    public void sendDigest() {
+        List<StockKey> keys = drainPending();
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<LowStockDTO> items = findLowStock(keys);
+        Set<StockKey> stillLow = new HashSet<>();
+        items.forEach(item -> stillLow.add(new StockKey(item.getProductId(), item.getWarehouseId())));
+        keys.stream().filter(key -> !stillLow.contains(key)).forEach(low::remove);
+
+        if (!items.isEmpty()) {
+            emailService.sendLowStockDigest(items);
+        }
+        log.info("Low stock digest: {} crossings, {} still low", keys.size(), items.size());
+    }
+
+    private List<StockKey> drainPending() {
+        List<StockKey> keys = new ArrayList<>();
+        for (Iterator<StockKey> it = pending.iterator(); it.hasNext(); ) {
+            keys.add(it.next());
+            it.remove();
+        }
+        return keys;
+    }
+
+    private List<LowStockDTO> findLowStock(List<StockKey> keys) {
+        List<LowStockDTO> items = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += CHUNK_SIZE) {
+            List<Object[]> chunk = keys.subList(from, Math.min(from + CHUNK_SIZE, keys.size())).stream()
+                    .map(key -> new Object[]{key.productId(), key.warehouseId()})
+                    .toList();
+            items.addAll(jdbcTemplate.query(LOW_STOCK_SQL, new MapSqlParameterSource("keys", chunk),
+                    LOW_STOCK_MAPPER));
+        }
+        return items;
+    }
+
+    private int rearmLevel(int reorderLevel) {
+        return reorderLevel + Math.max(1, (int) Math.ceil(reorderLevel * rearmRatio));
+    }
+}
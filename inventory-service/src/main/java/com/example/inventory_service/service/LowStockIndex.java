@@ -0,0 +1,348 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.CursorPageDTO;
+import com.example.inventory_service.dto.KeysetCursor;
+import com.example.inventory_service.dto.LowStockDTO;
+import com.example.inventory_service.model.InventoryStock;
+import com.example.inventory_service.model.Product;
+import com.example.inventory_service.model.Warehouse;
+import com.example.inventory_service.repository.InventoryStockRepository;
+import com.example.inventory_service.repository.ProductRepository;
+import com.example.inventory_service.repository.WarehouseRepository;
+import com.example.inventory_service.service.StockMutationService.StockKey;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Live set of product/warehouse pairs at or below their product's reorder level, so the
+ * low-stock report does not join the whole inventory to products. Entries are kept sorted
+ * in the same order PostgreSQL sorts {@code (product_id, warehouse_id)}, which lets a page
+ * cursor move between the index and the database fallback used before the first build.
+ * <p>
+ * Stock changes and reorder level changes are applied after their transaction commits,
+ * from the rows as they are then, not from the values the transaction wrote: after-commit
+ * callbacks of concurrent transactions run in any order, and the last one to read a pair
+ * under its lock stripe always sees the newest committed quantity. The index is rebuilt at
+ * startup and periodically, which also repairs changes made outside the service.
+ */
+@Service
+@Slf4j
+public class LowStockIndex {
+
+    private static final String LOW_STOCK_SQL = """
+            SELECT i.product_id, i.warehouse_id, i.quantity, p.reorder_level
+            FROM inventory i JOIN products p ON p.id = i.product_id
+            WHERE i.quantity <= p.reorder_level
+            """;
+
+    private static final String PRODUCT_STOCK_SQL = """
+            SELECT i.product_id, i.warehouse_id, i.quantity, p.reorder_level
+            FROM inventory i JOIN products p ON p.id = i.product_id
+            WHERE i.product_id IN (:productIds)
+            """;
+
+    private static final String PAIR_STOCK_SQL = """
+            SELECT i.product_id, i.warehouse_id, i.quantity, p.reorder_level
+            FROM inventory i JOIN products p ON p.id = i.product_id
+            WHERE (i.product_id, i.warehouse_id) IN (:pairs)
+            """;
+
+    private static final int LOCK_STRIPES = 64;
+
+    private static final UUID MIN_UUID = new UUID(0, 0);
+    private static final UUID MAX_UUID = new UUID(-1, -1);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final InventoryStockRepository inventoryStockRepository;
+    private final ProductRepository productRepository;
+    private final WarehouseRepository warehouseRepository;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+
+    private volatile ConcurrentSkipListMap<StockKey, Level> entries;
+    private volatile Build building;
+
+    public LowStockIndex(NamedParameterJdbcTemplate jdbcTemplate,
+            InventoryStockRepository inventoryStockRepository,
+            ProductRepository productRepository,
+            WarehouseRepository warehouseRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.inventoryStockRepository = inventoryStockRepository;
+        this.productRepository = productRepository;
+        this.warehouseRepository = warehouseRepository;
+        Arrays.setAll(stripes, i -> new ReentrantLock());
+    }
+
+    public record Level(int quantity, int reorderLevel) {
+    }
+
+    /**
+     * Marks a pair whose stock changed. Once the transaction commits, the pairs it marked are
+     * re-read together and applied.
+     */
+    public void record(UUID productId, UUID warehouseId) {
+        StockKey key = new StockKey(productId, warehouseId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(Set.of(key));
+            return;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.keys.add(key);
+    }
+
+    /**
+     * Re-evaluates every pair of a product, for example after its reorder level changed.
+     */
+    public void reloadProduct(UUID productId) {
+        reloadProducts(List.of(productId));
+    }
+
+    public void reloadProducts(Collection<UUID> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> withStripes(IntStream.range(0, LOCK_STRIPES), () -> {
+            productIds.forEach(this::removeEntries);
+            jdbcTemplate.query(PRODUCT_STOCK_SQL, new MapSqlParameterSource("productIds", productIds), rs -> {
+                apply(new StockKey(rs.getObject("product_id", UUID.class), rs.getObject("warehouse_id", UUID.class)),
+                        rs.getInt("quantity"), rs.getInt("reorder_level"));
+            });
+        }));
+    }
+
+    public void removeProduct(UUID productId) {
+        afterCommit(() -> removeEntries(productId));
+    }
+
+    /**
+     * All low pairs, from the index once it is built and from the database before that.
+     */
+    public List<LowStockDTO> findAll() {
+        ConcurrentSkipListMap<StockKey, Level> index = entries;
+        if (index == null) {
+            return inventoryStockRepository.findLowStockItems().stream().map(LowStockIndex::toDto).toList();
+        }
+        return toDtos(new ArrayList<>(index.entrySet()));
+    }
+
+    public CursorPageDTO<LowStockDTO> scroll(String cursor, int size) {
+        int pageSize = KeysetCursor.pageSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor, 2);
+        ConcurrentSkipListMap<StockKey, Level> index = entries;
+        List<LowStockDTO> rows;
+        if (index == null) {
+            Limit limit = Limit.of(pageSize + 1);
+            rows = (after == null
+                    ? inventoryStockRepository.findFirstLowStockPage(limit)
+                    : inventoryStockRepository.findLowStockPageAfter(after.getUuid(0), after.getUuid(1), limit))
+                    .stream().map(LowStockIndex::toDto).toList();
+        } else {
+            NavigableMap<StockKey, Level> tail = after == null
+                    ? index
+                    : index.tailMap(new StockKey(after.getUuid(0), after.getUuid(1)), false);
+            rows = toDtos(tail.entrySet().stream().limit(pageSize + 1L).toList());
+        }
+        return CursorPageDTO.of(rows, pageSize, Function.identity(),
+                row -> KeysetCursor.encode(row.getProductId(), row.getWarehouseId()));
+    }
+
+    /**
+     * Rebuilds the index from the database. Pairs changed while the query runs keep the
+     * value from their change, which is newer than anything the query could have read.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${analytics.low-stock.rebuild-interval-ms:600000}",
+            initialDelayString = "${analytics.low-stock.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        long started = System.nanoTime();
+        Build build = new Build();
+        building = build;
+        try {
+            jdbcTemplate.query(LOW_STOCK_SQL, rs -> {
+                StockKey key = new StockKey(rs.getObject("product_id", UUID.class),
+                        rs.getObject("warehouse_id", UUID.class));
+                Level level = new Level(rs.getInt("quantity"), rs.getInt("reorder_level"));
+                build.entries.compute(key, (k, current) -> build.touched.contains(k) ? current : level);
+            });
+            entries = build.entries;
+        } finally {
+            building = null;
+        }
+        log.debug("Rebuilt low stock index: {} entries in {} ms", build.entries.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Re-reads the pairs and applies what is committed now. A pair that no longer exists is
+     * removed. The pairs' stripes are held in index order while reading and applying.
+     */
+    private void refresh(Set<StockKey> keys) {
+        withStripes(keys.stream().mapToInt(this::stripe), () -> {
+            Set<StockKey> missing = new HashSet<>(keys);
+            List<Object[]> pairs = keys.stream().map(key -> new Object[]{key.productId(), key.warehouseId()}).toList();
+            jdbcTemplate.query(PAIR_STOCK_SQL, new MapSqlParameterSource("pairs", pairs), rs -> {
+                StockKey key = new StockKey(rs.getObject("product_id", UUID.class),
+                        rs.getObject("warehouse_id", UUID.class));
+                missing.remove(key);
+                apply(key, rs.getInt("quantity"), rs.getInt("reorder_level"));
+            });
+            missing.forEach(key -> apply(key, null));
+        });
+    }
+
+    private void withStripes(IntStream indexes, Runnable action) {
+        int[] held = indexes.distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (int index : held) {
+                stripes[index].lock();
+                locked++;
+            }
+            action.run();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[held[i]].unlock();
+            }
+        }
+    }
+
+    private int stripe(StockKey key) {
+        return Math.floorMod(key.hashCode(), LOCK_STRIPES);
+    }
+
+    private void apply(StockKey key, int quantity, int reorderLevel) {
+        apply(key, quantity <= reorderLevel ? new Level(quantity, reorderLevel) : null);
+    }
+
+    private void apply(StockKey key, Level level) {
+        Build build = building;
+        if (build != null) {
+            build.touched.add(key);
+            build.entries.compute(key, (k, current) -> level);
+        }
+        ConcurrentSkipListMap<StockKey, Level> index = entries;
+        if (index != null) {
+            index.compute(key, (k, current) -> level);
+        }
+    }
+
+    private void removeEntries(UUID productId) {
+        StockKey from = new StockKey(productId, MIN_UUID);
+        StockKey to = new StockKey(productId, MAX_UUID);
+        Build build = building;
+        if (build != null) {
+            build.entries.subMap(from, true, to, true).keySet().forEach(build.touched::add);
+            build.entries.subMap(from, true, to, true).clear();
+        }
+        ConcurrentSkipListMap<StockKey, Level> index = entries;
+        if (index != null) {
+            index.subMap(from, true, to, true).clear();
+        }
+    }
+
+    private List<LowStockDTO> toDtos(List<Map.Entry<StockKey, Level>> page) {
+        Map<UUID, Product> products = productRepository.findAllById(page.stream()
+                        .map(entry -> entry.getKey().productId()).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<UUID, Warehouse> warehouses = warehouseRepository.findAllById(page.stream()
+                        .map(entry -> entry.getKey().warehouseId()).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Warehouse::getId, Function.identity()));
+        List<LowStockDTO> rows = new ArrayList<>(page.size());
+        for (Map.Entry<StockKey, Level> entry : page) {
+            Product product = products.get(entry.getKey().productId());
+            Warehouse warehouse = warehouses.get(entry.getKey().warehouseId());
+            if (product == null || warehouse == null) {
+                continue;
+            }
+            rows.add(LowStockDTO.builder()
+                    .productId(product.getId())
+                    .productName(product.getName())
+                    .productSku(product.getSku())
+                    .warehouseId(warehouse.getId())
+                    .warehouseName(warehouse.getName())
+                    .currentQuantity(entry.getValue().quantity())
+                    .reorderLevel(entry.getValue().reorderLevel())
+                    .build());
+        }
+        return rows;
+    }
+
+    private static LowStockDTO toDto(InventoryStock stock) {
+        return LowStockDTO.builder()
+                .productId(stock.getProduct().getId())
+                .productName(stock.getProduct().getName())
+                .productSku(stock.getProduct().getSku())
+                .warehouseId(stock.getWarehouse().getId())
+                .warehouseName(stock.getWarehouse().getName())
+                .currentQuantity(stock.getQuantity())
+                .reorderLevel(stock.getProduct().getReorderLevel())
+                .build();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Pairs whose stock the current transaction changed.
+     */
+    private final class Pending implements TransactionSynchronization {
+
+        private final Set<StockKey> keys = new HashSet<>();
+
+        @Override
+        public void afterCommit() {
+            try {
+                refresh(keys);
+            } catch (DataAccessException e) {
+                // the transaction is committed; the next rebuild picks the pairs up
+                log.warn("Could not refresh {} low stock pairs: {}", keys.size(), e.getMessage());
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(LowStockIndex.this);
+        }
+    }
+
+    /**
+     * A rebuild in progress: the new entries, and the pairs changed since it started.
+     */
+    private static final class Build {
+
+        private final ConcurrentSkipListMap<StockKey, Level> entries = new ConcurrentSkipListMap<>(StockKey.ORDER);
+        private final Set<StockKey> touched = ConcurrentHashMap.newKeySet();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.config.AsyncConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs a group of independent read queries at the same time on the analytics executor, so
+ * the group takes as long as its slowest query instead of the sum of all of them. Each
+ * query gets the same deadline, counted from when the group starts. A query that fails,
+ * misses the deadline or finds the executor's queue full is reported in
+ * {@link Results#failures()}; the caller decides whether partial results are good enough.
+ * <p>
+ * Queries run outside the caller's transaction, each in its own read-only transaction with
+ * its own connection, and see data committed at the time they run. The transaction sets
+ * {@code statement_timeout} to the time left until the deadline, so PostgreSQL cancels a
+ * statement that overruns. Interrupting the thread alone would not stop it, as the driver
+ * keeps waiting for the server.
+ */
+@Service
+@Slf4j
+public class ParallelQueryRunner {
+
+    private static final String STATEMENT_TIMEOUT_SQL = "SELECT set_config('statement_timeout', :timeout, true)";
+
+    private final ExecutorService executor;
+    private final TransactionTemplate transactionTemplate;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Duration timeout;
+
+    public ParallelQueryRunner(@Qualifier(AsyncConfig.ANALYTICS_EXECUTOR) ExecutorService executor,
+            PlatformTransactionManager transactionManager,
+            NamedParameterJdbcTemplate jdbcTemplate,
+            @Value("${analytics.query-timeout:5s}") Duration timeout) {
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.jdbcTemplate = jdbcTemplate;
+        this.timeout = timeout;
+    }
+
+    public Results run(Map<String, Callable<?>> queries) {
+        return run(queries, timeout);
+    }
+
+    public Results run(Map<String, Callable<?>> queries, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Map<String, Future<?>> futures = new LinkedHashMap<>();
+        Map<String, Object> values = new HashMap<>();
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+        queries.forEach((name, query) -> {
+            try {
+                futures.put(name, executor.submit(() -> runBefore(deadline, query)));
+            } catch (RejectedExecutionException e) {
+                failures.put(name, e);
+                log.warn("Analytics query {} rejected, the executor queue is full", name);
+            }
+        });
+
+        try {
+            for (Map.Entry<String, Future<?>> entry : futures.entrySet()) {
+                try {
+                    values.put(entry.getKey(), entry.getValue().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+                } catch (ExecutionException e) {
+                    failures.put(entry.getKey(), e.getCause());
+                    log.warn("Analytics query {} failed: {}", entry.getKey(), e.getCause().toString());
+                } catch (TimeoutException e) {
+                    entry.getValue().cancel(true);
+                    failures.put(entry.getKey(), e);
+                    log.warn("Analytics query {} did not finish within {}", entry.getKey(), timeout);
+                }
+            }
+        } catch (InterruptedException e) {
+            futures.values().forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for analytics queries", e);
+        }
+        return new Results(values, failures);
+    }
+
+    private Object runBefore(long deadline, Callable<?> query) throws Exception {
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remainingMs <= 0) {
+            throw new TimeoutException("Deadline passed before the query started");
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                jdbcTemplate.queryForObject(STATEMENT_TIMEOUT_SQL,
+                        new MapSqlParameterSource("timeout", remainingMs + "ms"), String.class);
+                try {
+                    return query.call();
+                } catch (Exception e) {
+                    throw new QueryFailedException(e);
+                }
+            });
+        } catch (QueryFailedException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    /**
+     * Carries a checked exception from a query out of the transaction callback.
+     */
+    private static final class QueryFailedException extends RuntimeException {
+
+        QueryFailedException(Exception cause) {
+            super(cause);
+        }
+    }
+
+    public record Results(Map<String, Object> values, Map<String, Throwable> failures) {
+
+        public boolean isComplete() {
+            return failures.isEmpty();
+        }
+
+        /**
+         * The value of a query, or {@code null} if it failed or timed out.
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T get(String name) {
+            return (T) values.get(name);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.repository.ProcessedStockEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Remembers which stock events have already been applied. Claims are written to
+ * {@code processed_stock_events} in the caller's transaction, so an event is marked
+ * processed exactly when its stock change commits. Claiming is a single
+ * {@code INSERT ... ON CONFLICT DO NOTHING RETURNING} per chunk: the primary key decides
+ * which ids are new, so no lookup is needed first and concurrent consumers cannot both win.
+ */
+@Service
+@Slf4j
+public class ProcessedEventIndex {
+
+    private static final String CLAIM_SQL = """
+            INSERT INTO processed_stock_events (event_id, processed_at)
+            VALUES :rows
+            ON CONFLICT (event_id) DO NOTHING
+            RETURNING event_id
+            """;
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ProcessedStockEventRepository processedStockEventRepository;
+    private final Duration retention;
+
+    public ProcessedEventIndex(NamedParameterJdbcTemplate jdbcTemplate,
+            ProcessedStockEventRepository processedStockEventRepository,
+            @Value("${idempotency.retention:7d}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.processedStockEventRepository = processedStockEventRepository;
+        this.retention = retention;
+    }
+
+    /**
+     * Claims an event for processing in the current transaction.
+     *
+     * @return {@code false} if the event was already processed
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean claim(UUID eventId) {
+        if (eventId == null) {
+            return true;
+        }
+        return !claimAll(List.of(eventId)).isEmpty();
+    }
+
+    /**
+     * Claims a batch of events in the current transaction.
+     *
+     * @return the ids that were not processed before, each once even if it was passed more than once
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Set<UUID> claimAll(Collection<UUID> eventIds) {
+        Set<UUID> unique = new LinkedHashSet<>(eventIds);
+        unique.remove(null);
+
+        Set<UUID> claimed = new HashSet<>();
+        List<UUID> toInsert = new ArrayList<>(unique);
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < toInsert.size(); from += CHUNK_SIZE) {
+            List<Object[]> rows = toInsert.subList(from, Math.min(from + CHUNK_SIZE, toInsert.size())).stream()
+                    .map(id -> new Object[]{id, now})
+                    .toList();
+            claimed.addAll(jdbcTemplate.queryForList(CLAIM_SQL, new MapSqlParameterSource("rows", rows), UUID.class));
+        }
+
+        if (claimed.size() < unique.size()) {
+            log.info("Skipping {} already processed stock event(s)", unique.size() - claimed.size());
+        }
+        return claimed;
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.prune-interval-ms:3600000}",
+            initialDelayString = "${idempotency.prune-interval-ms:3600000}")
+    @Transactional
+    public void prune() {
+        int removed = processedStockEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention));
+        log.info("Pruned {} processed stock event id(s) older than {}", removed, retention);
+    }
+}
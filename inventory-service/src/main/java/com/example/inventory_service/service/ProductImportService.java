@@ -0,0 +1,628 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.config.AsyncConfig;
+import com.example.inventory_service.dto.ProductCreateDTO;
+import com.example.inventory_service.dto.ProductImportResultDTO;
+import com.example.inventory_service.dto.ProductImportResultDTO.RowError;
+import com.example.inventory_service.exception.BadRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Imports products from a CSV or NDJSON stream. Rows are read in order and grouped into
+ * chunks; each chunk is validated and written in its own transaction on the import executor,
+ * with one SKU lookup and multi-row statements instead of a query and an insert per product.
+ * <p>
+ * Chunks commit independently, so a failed or interrupted import leaves the chunks before
+ * it in place. Re-running the same file in {@link Mode#UPSERT} mode is safe. Every row is
+ * accounted for: a chunk that fails for any reason reports its rows as failed.
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+
+    private static final String FIND_SQL = """
+            SELECT id, sku, unit_price, reorder_level FROM products
+            WHERE sku IN (:skus)
+            """;
+
+    // locked in SKU order, like the inserts, so concurrent chunks cannot deadlock
+    private static final String LOCK_SQL = FIND_SQL + "ORDER BY sku FOR UPDATE";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO products (id, sku, name, description, category, unit_price, reorder_level, is_active, created_at)
+            VALUES :rows
+            ON CONFLICT (sku) DO NOTHING
+            RETURNING sku
+            """;
+
+    private static final String UPDATE_SQL = """
+            UPDATE products p
+            SET name = v.name,
+                description = COALESCE(v.description, p.description),
+                category = COALESCE(v.category, p.category),
+                unit_price = COALESCE(CAST(v.unit_price AS numeric), p.unit_price),
+                reorder_level = COALESCE(CAST(v.reorder_level AS integer), p.reorder_level)
+            FROM (VALUES :rows) AS v(id, name, description, category, unit_price, reorder_level)
+            WHERE p.id = CAST(v.id AS uuid)
+            """;
+
+    private static final int DEFAULT_REORDER_LEVEL = 10;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final InventorySummaryService inventorySummaryService;
+    private final LowStockIndex lowStockIndex;
+    private final CacheManager cacheManager;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    public ProductImportService(NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Qualifier(AsyncConfig.IMPORT_EXECUTOR) ExecutorService executor,
+            ObjectMapper objectMapper,
+            Validator validator,
+            InventorySummaryService inventorySummaryService,
+            LowStockIndex lowStockIndex,
+            CacheManager cacheManager,
+            @Value("${import.chunk-size:1000}") int chunkSize,
+            @Value("${import.max-errors:1000}") int maxErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.inventorySummaryService = inventorySummaryService;
+        this.lowStockIndex = lowStockIndex;
+        this.cacheManager = cacheManager;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public enum Format {
+        CSV("text/csv"),
+        NDJSON("application/x-ndjson");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public static Format fromContentType(String contentType) {
+            for (Format format : values()) {
+                if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith(format.contentType)) {
+                    return format;
+                }
+            }
+            throw new BadRequestException("Unsupported import content type: " + contentType
+                    + " (use text/csv or application/x-ndjson)");
+        }
+    }
+
+    public enum Mode {
+        /**
+         * Only creates products; rows whose SKU already exists are reported as errors.
+         */
+        INSERT,
+        /**
+         * Creates new products and updates existing ones. Empty optional fields keep their
+         * current value, as in a product update. A product another chunk or request creates
+         * while the row is being inserted is updated in a second transaction.
+         */
+        UPSERT;
+
+        public static Mode parse(String value) {
+            try {
+                return Mode.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unsupported import mode: " + value + " (use insert or upsert)");
+            }
+        }
+    }
+
+    /**
+     * Reads the whole stream and returns once every chunk has been written.
+     */
+    public ProductImportResultDTO importProducts(InputStream in, Format format, Mode mode) throws IOException {
+        long started = System.nanoTime();
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        RowReader rows = format == Format.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader, objectMapper);
+        Tally tally = new Tally(maxErrors);
+        List<Future<?>> chunks = new ArrayList<>();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        try {
+            for (ImportRow row = rows.next(); row != null; row = rows.next()) {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    List<ImportRow> full = chunk;
+                    chunks.add(executor.submit(() -> tally.add(process(full, mode))));
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                List<ImportRow> last = chunk;
+                chunks.add(executor.submit(() -> tally.add(process(last, mode))));
+            }
+        } finally {
+            awaitAll(chunks);
+        }
+
+        ProductImportResultDTO result = tally.result(rows.count(), (System.nanoTime() - started) / 1_000_000);
+        log.info("Imported {} product rows ({}, {}): {} inserted, {} updated, {} failed in {} ms", result.getRows(),
+                format, mode, result.getInserted(), result.getUpdated(), result.getFailed(), result.getDurationMs());
+        return result;
+    }
+
+    private static void awaitAll(List<Future<?>> chunks) {
+        boolean interrupted = false;
+        for (Future<?> chunk : chunks) {
+            try {
+                chunk.get();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException e) {
+                log.error("Product import chunk failed", e.getCause());
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Validates and writes one chunk. Anything that goes wrong outside the write transactions
+     * fails every row of the chunk, so no row is left out of the totals.
+     */
+    private ChunkResult process(List<ImportRow> chunk, Mode mode) {
+        try {
+            ChunkResult result = new ChunkResult();
+            Map<String, ImportRow> valid = validRows(chunk, result);
+            if (!valid.isEmpty()) {
+                Map<String, ImportRow> skipped = writeInTransaction(valid, mode, result);
+                if (!skipped.isEmpty()) {
+                    // created and committed by another chunk or request since the lookup
+                    writeInTransaction(skipped, mode, result).values().forEach(row ->
+                            result.errors.add(new RowError(row.row(), row.sku(), "Product with SKU "
+                                    + row.sku() + " was changed by another request during the import")));
+                }
+            }
+            return result;
+        } catch (RuntimeException e) {
+            ChunkResult failed = new ChunkResult();
+            failAll(chunk, e, failed);
+            return failed;
+        }
+    }
+
+    private Map<String, ImportRow> validRows(List<ImportRow> chunk, ChunkResult result) {
+        Map<String, ImportRow> valid = new TreeMap<>();
+        for (ImportRow row : chunk) {
+            String error = row.error() != null ? row.error() : validate(row.product());
+            ImportRow earlier = error == null ? valid.get(row.product().getSku()) : null;
+            if (earlier != null) {
+                error = "Duplicate SKU, already on row " + earlier.row();
+            }
+            if (error != null) {
+                result.errors.add(new RowError(row.row(), row.sku(), error));
+            } else {
+                valid.put(row.product().getSku(), row);
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Writes the rows in one transaction and adds the outcome to the result.
+     *
+     * @return the rows an {@link Mode#UPSERT} insert skipped because the SKU appeared since
+     * the lookup, keyed and ordered by SKU
+     */
+    private Map<String, ImportRow> writeInTransaction(Map<String, ImportRow> rows, Mode mode, ChunkResult result) {
+        try {
+            ChunkResult written = transactionTemplate.execute(status -> write(rows, mode));
+            result.inserted += written.inserted;
+            result.updated += written.updated;
+            result.errors.addAll(written.errors);
+            return written.skipped;
+        } catch (RuntimeException e) {
+            failAll(rows.values(), e, result);
+            return Map.of();
+        }
+    }
+
+    private static void failAll(Collection<ImportRow> rows, RuntimeException e, ChunkResult result) {
+        String message = "Not imported: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        log.warn("Product import chunk of {} rows failed: {}", rows.size(), message);
+        rows.forEach(row -> result.errors.add(new RowError(row.row(), row.sku(), message)));
+    }
+
+    private String validate(ProductCreateDTO product) {
+        Set<ConstraintViolation<ProductCreateDTO>> violations = validator.validate(product);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Writes one chunk of valid rows, keyed and ordered by SKU. In {@link Mode#UPSERT} mode,
+     * rows whose insert found the SKU taken are returned as skipped rather than updated here:
+     * locking those rows now, after this transaction inserted others, could deadlock with a
+     * chunk that locked them first.
+     */
+    private ChunkResult write(Map<String, ImportRow> rows, Mode mode) {
+        ChunkResult result = new ChunkResult();
+        Map<String, Existing> existing = new HashMap<>();
+        jdbcTemplate.query(mode == Mode.UPSERT ? LOCK_SQL : FIND_SQL, new MapSqlParameterSource("skus", rows.keySet()),
+                rs -> {
+                    existing.put(rs.getString("sku"), new Existing(rs.getObject("id", UUID.class),
+                            rs.getBigDecimal("unit_price"), rs.getInt("reorder_level")));
+                });
+
+        List<Object[]> updates = new ArrayList<>();
+        Map<UUID, BigDecimal> priceDeltas = new HashMap<>();
+        List<UUID> reorderChanged = new ArrayList<>();
+        List<ImportRow> inserts = new ArrayList<>();
+        for (ImportRow row : rows.values()) {
+            ProductCreateDTO product = row.product();
+            Existing current = existing.get(product.getSku());
+            if (current == null) {
+                inserts.add(row);
+            } else if (mode == Mode.INSERT) {
+                result.errors.add(new RowError(row.row(), row.sku(), alreadyExists(product.getSku())));
+            } else {
+                updates.add(new Object[]{current.id(), product.getName(), product.getDescription(),
+                        product.getCategory(), product.getUnitPrice(), product.getReorderLevel()});
+                if (product.getUnitPrice() != null && (current.unitPrice() == null
+                        || product.getUnitPrice().compareTo(current.unitPrice()) != 0)) {
+                    BigDecimal before = current.unitPrice() != null ? current.unitPrice() : BigDecimal.ZERO;
+                    priceDeltas.put(current.id(), product.getUnitPrice().subtract(before));
+                }
+                if (product.getReorderLevel() != null && product.getReorderLevel() != current.reorderLevel()) {
+                    reorderChanged.add(current.id());
+                }
+            }
+        }
+
+        if (!updates.isEmpty()) {
+            result.updated = jdbcTemplate.update(UPDATE_SQL, new MapSqlParameterSource("rows", updates));
+            inventorySummaryService.recordPriceChanges(priceDeltas);
+            lowStockIndex.reloadProducts(reorderChanged);
+            List<UUID> updatedIds = rows.keySet().stream()
+                    .map(existing::get).filter(Objects::nonNull).map(Existing::id).toList();
+            evictAfterCommit(updatedIds);
+        }
+
+        if (!inserts.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            List<Object[]> values = inserts.stream().map(row -> {
+                ProductCreateDTO product = row.product();
+                return new Object[]{UUID.randomUUID(), product.getSku(), product.getName(), product.getDescription(),
+                        product.getCategory(), product.getUnitPrice(),
+                        product.getReorderLevel() != null ? product.getReorderLevel() : DEFAULT_REORDER_LEVEL,
+                        true, now};
+            }).toList();
+            Set<String> created = new HashSet<>(jdbcTemplate.queryForList(INSERT_SQL,
+                    new MapSqlParameterSource("rows", values), String.class));
+            for (ImportRow row : inserts) {
+                if (created.contains(row.product().getSku())) {
+                    result.inserted++;
+                    inventorySummaryService.recordProductAdded(true);
+                } else if (mode == Mode.UPSERT) {
+                    result.skipped.put(row.product().getSku(), row);
+                } else {
+                    // created by another request or chunk since the lookup
+                    result.errors.add(new RowError(row.row(), row.sku(), alreadyExists(row.product().getSku())));
+                }
+            }
+        }
+        return result;
+    }
+
+    private void evictAfterCommit(List<UUID> productIds) {
+        Cache products = cacheManager.getCache("products");
+        if (products == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                productIds.forEach(products::evict);
+            }
+        });
+    }
+
+    private static String alreadyExists(String sku) {
+        return "Product with SKU " + sku + " already exists";
+    }
+
+    private record Existing(UUID id, BigDecimal unitPrice, int reorderLevel) {
+    }
+
+    /**
+     * A parsed row, or the reason it could not be parsed.
+     */
+    private record ImportRow(long row, ProductCreateDTO product, String error) {
+
+        static ImportRow failed(long row, String error) {
+            return new ImportRow(row, null, error);
+        }
+
+        String sku() {
+            return product != null ? product.getSku() : null;
+        }
+    }
+
+    private static final class ChunkResult {
+
+        private int inserted;
+        private int updated;
+        private final List<RowError> errors = new ArrayList<>();
+        private final Map<String, ImportRow> skipped = new TreeMap<>();
+    }
+
+    /**
+     * Totals across chunks, which finish in any order. The errors kept are those of the
+     * lowest rows, whatever order the chunks finish in: they sit in a max-heap on the row
+     * number, which drops the highest row once it holds more than {@code maxErrors}.
+     */
+    private static final class Tally {
+
+        private final int maxErrors;
+        private final PriorityQueue<RowError> errors =
+                new PriorityQueue<>(Comparator.comparingLong(RowError::getRow).reversed());
+        private long inserted;
+        private long updated;
+        private long failed;
+
+        Tally(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        synchronized void add(ChunkResult chunk) {
+            inserted += chunk.inserted;
+            updated += chunk.updated;
+            failed += chunk.errors.size();
+            for (RowError error : chunk.errors) {
+                errors.add(error);
+                if (errors.size() > maxErrors) {
+                    errors.poll();
+                }
+            }
+        }
+
+        synchronized ProductImportResultDTO result(long rows, long durationMs) {
+            List<RowError> sorted = new ArrayList<>(errors);
+            sorted.sort(Comparator.comparingLong(RowError::getRow));
+            return ProductImportResultDTO.builder()
+                    .rows(rows)
+                    .inserted(inserted)
+                    .updated(updated)
+                    .failed(failed)
+                    .errors(sorted)
+                    .errorsTruncated(failed > errors.size())
+                    .durationMs(durationMs)
+                    .build();
+        }
+    }
+
+    private abstract static class RowReader {
+
+        private long count;
+
+        /**
+         * The next row, or {@code null} at the end of the input.
+         */
+        final ImportRow next() throws IOException {
+            ImportRow row = read(count + 1);
+            if (row != null) {
+                count++;
+            }
+            return row;
+        }
+
+        abstract ImportRow read(long row) throws IOException;
+
+        long count() {
+            return count;
+        }
+    }
+
+    private static final class NdjsonRowReader extends RowReader {
+
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+
+        NdjsonRowReader(Reader reader, ObjectMapper objectMapper) {
+            this.reader = new BufferedReader(reader, BUFFER_SIZE);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        ImportRow read(long row) throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            try {
+                ProductCreateDTO product = objectMapper.readValue(line, ProductCreateDTO.class);
+                if (product == null) {
+                    // a literal null line
+                    return ImportRow.failed(row, "Expected a JSON object");
+                }
+                return new ImportRow(row, product, null);
+            } catch (JsonProcessingException e) {
+                return ImportRow.failed(row, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row naming the columns: {@code sku} and {@code name} are
+     * required; {@code description}, {@code category}, {@code unitPrice} and
+     * {@code reorderLevel} are optional. Column names ignore case and underscores.
+     */
+    private static final class CsvRowReader extends RowReader {
+
+        private final Reader reader;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int position;
+        private int limit;
+        private int pushedBack = -2;
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        CsvRowReader(Reader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new BadRequestException("CSV import is empty");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("sku") || !columns.containsKey("name")) {
+                throw new BadRequestException("CSV header must include sku and name columns");
+            }
+        }
+
+        @Override
+        ImportRow read(long row) throws IOException {
+            List<String> fields;
+            do {
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isEmpty());
+            ProductCreateDTO product = ProductCreateDTO.builder()
+                    .sku(field(fields, "sku"))
+                    .name(field(fields, "name"))
+                    .description(field(fields, "description"))
+                    .category(field(fields, "category"))
+                    .build();
+            String unitPrice = field(fields, "unitprice");
+            String reorderLevel = field(fields, "reorderlevel");
+            try {
+                product.setUnitPrice(unitPrice != null ? new BigDecimal(unitPrice.trim()) : null);
+            } catch (NumberFormatException e) {
+                return new ImportRow(row, product, "Invalid unitPrice: " + unitPrice);
+            }
+            try {
+                product.setReorderLevel(reorderLevel != null ? Integer.valueOf(reorderLevel.trim()) : null);
+            } catch (NumberFormatException e) {
+                return new ImportRow(row, product, "Invalid reorderLevel: " + reorderLevel);
+            }
+            return new ImportRow(row, product, null);
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+                return null;
+            }
+            return fields.get(index);
+        }
+
+        /**
+         * The fields of the next record, or {@code null} at the end of the input. Quoted
+         * fields may contain commas, doubled quotes and line breaks.
+         */
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+            int c;
+            while ((c = read()) != -1) {
+                any = true;
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                    } else {
+                        int next = read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            pushedBack = next;
+                        }
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        pushedBack = next;
+                    }
+                    break;
+                } else {
+                    field.append((char) c);
+                }
+            }
+            if (!any) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private int read() throws IOException {
+            if (pushedBack != -2) {
+                int c = pushedBack;
+                pushedBack = -2;
+                return c;
+            }
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+    }
+}
@@ -4,25 +4,42 @@ import com.example.inventory_service.dto.*;
 import com.example.inventory_service.exception.ConflictException;
 import com.example.inventory_service.exception.ResourceNotFoundException;
 import com.example.inventory_service.model.Product;
+import com.example.inventory_service.repository.ProductImageRepository;
+import com.example.inventory_service.repository.ProductImageRepository.ImageRef;
 import com.example.inventory_service.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProductService {
 
+    private static final String SEARCH_RANK = "search_rank";
+
     private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+    private final InventorySummaryService inventorySummaryService;
+    private final LowStockIndex lowStockIndex;
+    private final FileStorageService fileStorageService;
 
     @Transactional
     public ProductResponseDTO createProduct(ProductCreateDTO dto) {
@@ -41,6 +58,7 @@ public class ProductService {
                 .build();
 
         product = productRepository.save(product);
+        inventorySummaryService.recordProductAdded(product.getIsActive());
         log.info("Created product with ID: {}", product.getId());
         return ProductResponseDTO.fromEntity(product);
     }
@@ -59,6 +77,12 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
     }
 
+    @Transactional(readOnly = true)
+    public Map<UUID, Product> getProductEntitiesByIds(Collection<UUID> ids) {
+        return productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
     @Transactional(readOnly = true)
     public Page<ProductResponseDTO> getAllProducts(
             String category,
@@ -66,8 +90,59 @@ public class ProductService {
             BigDecimal maxPrice,
             String search,
             Pageable pageable) {
-        return productRepository.findByFilters(category, minPrice, maxPrice, search, pageable)
-                .map(ProductResponseDTO::fromEntity);
+        if (search == null || search.isBlank()) {
+            return toResponsePage(productRepository.findByFilters(category, minPrice, maxPrice, pageable));
+        }
+        String term = search.trim().toLowerCase(Locale.ROOT);
+        Pageable ranked = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                Sort.by(SEARCH_RANK).and(pageable.getSort()));
+        return toResponsePage(productRepository.searchByFilters(category, minPrice, maxPrice, term,
+                escapeLike(term), ranked));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductResponseDTO> scrollProducts(String category, String cursor, int size) {
+        int pageSize = KeysetCursor.pageSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor, 2);
+        Limit limit = Limit.of(pageSize + 1);
+        List<Product> rows;
+        if (category == null) {
+            rows = after == null
+                    ? productRepository.findFirstKeysetPage(limit)
+                    : productRepository.findKeysetPageAfter(after.getString(0), after.getUuid(1), limit);
+        } else {
+            rows = after == null
+                    ? productRepository.findFirstKeysetPageInCategory(category, limit)
+                    : productRepository.findKeysetPageInCategoryAfter(category, after.getString(0),
+                            after.getUuid(1), limit);
+        }
+        Map<UUID, List<UUID>> imageIds = findImageIds(rows.stream().map(Product::getId).toList());
+        return CursorPageDTO.of(rows, pageSize,
+                product -> ProductResponseDTO.fromEntity(product, imageIds.getOrDefault(product.getId(), List.of())),
+                product -> KeysetCursor.encode(product.getName(), product.getId()));
+    }
+
+    /**
+     * Maps a page of products with one query for all of their image ids, instead of one
+     * lazy load of the images collection per product.
+     */
+    private Page<ProductResponseDTO> toResponsePage(Page<Product> products) {
+        Map<UUID, List<UUID>> imageIds = findImageIds(products.map(Product::getId).getContent());
+        return products.map(product ->
+                ProductResponseDTO.fromEntity(product, imageIds.getOrDefault(product.getId(), List.of())));
+    }
+
+    private Map<UUID, List<UUID>> findImageIds(List<UUID> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        return productImageRepository.findImageRefsByProductIds(productIds).stream()
+                .collect(Collectors.groupingBy(ImageRef::getProductId,
+                        Collectors.mapping(ImageRef::getId, Collectors.toList())));
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 
     @Transactional
@@ -85,13 +160,16 @@ public class ProductService {
         if (dto.getCategory() != null) {
             product.setCategory(dto.getCategory());
         }
-        if (dto.getUnitPrice() != null) {
+        if (dto.getUnitPrice() != null && !dto.getUnitPrice().equals(product.getUnitPrice())) {
+            inventorySummaryService.recordPriceChange(id, product.getUnitPrice(), dto.getUnitPrice());
             product.setUnitPrice(dto.getUnitPrice());
         }
-        if (dto.getReorderLevel() != null) {
+        if (dto.getReorderLevel() != null && !dto.getReorderLevel().equals(product.getReorderLevel())) {
             product.setReorderLevel(dto.getReorderLevel());
+            lowStockIndex.reloadProduct(id);
         }
-        if (dto.getIsActive() != null) {
+        if (dto.getIsActive() != null && !dto.getIsActive().equals(product.getIsActive())) {
+            inventorySummaryService.recordProductActiveChange(dto.getIsActive());
             product.setIsActive(dto.getIsActive());
         }
 
@@ -103,10 +181,12 @@ public class ProductService {
     @Transactional
     @CacheEvict(value = "products", key = "#id")
     public void deleteProduct(UUID id) {
-        if (!productRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Product not found with id: " + id);
-        }
-        productRepository.deleteById(id);
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        inventorySummaryService.recordProductRemoved(id, Boolean.TRUE.equals(product.getIsActive()));
+        fileStorageService.releaseProductImages(id);
+        productRepository.delete(product);
+        lowStockIndex.removeProduct(id);
         log.info("Deleted product with ID: {}", id);
     }
 }
@@ -0,0 +1,87 @@
+package com.example.inventory_service.service;
+
+import java.util.*;
+
+/**
+ * Space-Saving summary of the products with the most units moved. Holds at most
+ * {@code capacity} counters; when it is full, a new product takes over the smallest counter
+ * and inherits its quantity. Estimates therefore never undercount a tracked product, and
+ * overcount by at most {@code total / capacity}. Movement counts only cover the time since
+ * the product got its counter. Not thread-safe.
+ */
+class SpaceSaving {
+
+    private static final Comparator<Counter> ORDER = Comparator
+            .comparingLong((Counter counter) -> counter.quantity)
+            .thenComparing(counter -> counter.productId);
+
+    private final int capacity;
+    private final Map<UUID, Counter> counters;
+    private final TreeSet<Counter> byQuantity = new TreeSet<>(ORDER);
+    private long total;
+
+    SpaceSaving(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.counters = HashMap.newHashMap(this.capacity);
+    }
+
+    void add(UUID productId, long quantity, long movements) {
+        total += quantity;
+        Counter counter = counters.get(productId);
+        if (counter != null) {
+            byQuantity.remove(counter);
+        } else if (counters.size() < capacity) {
+            counter = new Counter(productId, 0);
+            counters.put(productId, counter);
+        } else {
+            Counter smallest = byQuantity.pollFirst();
+            counters.remove(smallest.productId);
+            counter = new Counter(productId, smallest.quantity);
+            counters.put(productId, counter);
+        }
+        counter.quantity += quantity;
+        counter.movements += movements;
+        byQuantity.add(counter);
+    }
+
+    long total() {
+        return total;
+    }
+
+    Collection<Counter> counters() {
+        return Collections.unmodifiableCollection(byQuantity.descendingSet());
+    }
+
+    static final class Counter {
+
+        private final UUID productId;
+        private final long error;
+        private long quantity;
+        private long movements;
+
+        private Counter(UUID productId, long error) {
+            this.productId = productId;
+            this.error = error;
+            this.quantity = error;
+        }
+
+        UUID productId() {
+            return productId;
+        }
+
+        long quantity() {
+            return quantity;
+        }
+
+        /**
+         * How much of {@link #quantity()} may belong to products evicted before this one.
+         */
+        long error() {
+            return error;
+        }
+
+        long movements() {
+            return movements;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.model.DailyStockFlow;
+import com.example.inventory_service.model.StockMovement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Maintains the {@code daily_stock_flow} rollup: movement quantities summed per day, type,
+ * warehouse and product.
+ * <p>
+ * Movements recorded in a transaction are folded into one upsert just before commit, like
+ * the dashboard summary, so a rollup row changes exactly when its movements become visible.
+ * Days can also be rebuilt from {@code stock_movements}; that is how history is backfilled
+ * on first start and how the last few days are re-checked every night.
+ */
+@Service
+@Slf4j
+public class StockFlowRollupService {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO daily_stock_flow (flow_date, type, warehouse_id, product_id, quantity, movement_count)
+            VALUES :rows
+            ON CONFLICT (flow_date, type, warehouse_id, product_id)
+            DO UPDATE SET quantity = daily_stock_flow.quantity + EXCLUDED.quantity,
+                          movement_count = daily_stock_flow.movement_count + EXCLUDED.movement_count
+            """;
+
+    // taken by a rebuild; conflicts only with writers of the same day
+    private static final String LOCK_DAY_SQL =
+            "SELECT pg_advisory_xact_lock(hashtextextended('daily_stock_flow:' || :day, 0))";
+
+    // taken by writers for each day they touch; shared, so writers do not wait for each other
+    private static final String LOCK_DAYS_SHARED_SQL = """
+            SELECT pg_advisory_xact_lock_shared(hashtextextended('daily_stock_flow:' || d.flow_date, 0))
+            FROM (SELECT v.flow_date FROM (VALUES :days) AS v(flow_date) ORDER BY v.flow_date) d
+            """;
+
+    private static final String DELETE_DAY_SQL = "DELETE FROM daily_stock_flow WHERE flow_date = :day";
+
+    private static final String REBUILD_DAY_SQL = """
+            INSERT INTO daily_stock_flow (flow_date, type, warehouse_id, product_id, quantity, movement_count)
+            SELECT CAST(:day AS date), type, warehouse_id, product_id, SUM(quantity), COUNT(*)
+            FROM stock_movements
+            WHERE created_at >= :from AND created_at < :to
+            GROUP BY type, warehouse_id, product_id
+            """;
+
+    private static final String BACKFILL_RANGE_SQL = """
+            SELECT (SELECT CAST(MIN(created_at) AS date) FROM stock_movements) AS first_movement,
+                   (SELECT MIN(flow_date) FROM daily_stock_flow) AS first_rollup
+            """;
+
+    private static final int UPSERT_CHUNK_SIZE = 1000;
+
+    private static final Comparator<DailyStockFlow.Key> KEY_ORDER = Comparator
+            .comparing(DailyStockFlow.Key::getFlowDate)
+            .thenComparing(DailyStockFlow.Key::getType)
+            .thenComparing(DailyStockFlow.Key::getWarehouseId)
+            .thenComparing(DailyStockFlow.Key::getProductId);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int recheckDays;
+
+    public StockFlowRollupService(NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${analytics.flow-rollup.recheck-days:2}") int recheckDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recheckDays = recheckDays;
+    }
+
+    /**
+     * Adds saved movements to the rollup when the current transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordMovements(Collection<StockMovement> movements) {
+        Map<DailyStockFlow.Key, long[]> pending = pending().flows;
+        for (StockMovement movement : movements) {
+            LocalDate day = movement.getCreatedAt() != null
+                    ? movement.getCreatedAt().toLocalDate()
+                    : LocalDate.now();
+            long[] totals = pending.computeIfAbsent(new DailyStockFlow.Key(day, movement.getType(),
+                    movement.getWarehouseId(), movement.getProductId()), key -> new long[2]);
+            totals[0] += movement.getQuantity();
+            totals[1]++;
+        }
+    }
+
+    /**
+     * Recomputes the rollup for each day in {@code [from, to]} from the raw movements, newest
+     * day first, one short transaction per day. The rebuild holds an advisory lock for its
+     * day only, so writers of that day wait for it while writers of other days carry on.
+     * Movements committed before the rebuild are counted by it, later ones are added on top.
+     *
+     * @return the number of rollup rows written
+     */
+    public long rebuild(LocalDate from, LocalDate to) {
+        long rows = 0;
+        for (LocalDate day = to; !day.isBefore(from); day = day.minusDays(1)) {
+            rows += rebuildDay(day);
+        }
+        return rows;
+    }
+
+    /**
+     * Backfills history on first start. Days are rebuilt newest first, so an interrupted
+     * backfill leaves the most recent days done and resumes from the oldest rolled-up day.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        LocalDate[] range = jdbcTemplate.queryForObject(BACKFILL_RANGE_SQL, Map.of(), (rs, rowNum) -> new LocalDate[]{
+                rs.getObject("first_movement", LocalDate.class), rs.getObject("first_rollup", LocalDate.class)});
+        LocalDate from = range[0];
+        LocalDate firstRollup = range[1];
+        if (from == null || (firstRollup != null && !firstRollup.isAfter(from))) {
+            return;
+        }
+        LocalDate to = firstRollup != null ? firstRollup : LocalDate.now();
+        long started = System.nanoTime();
+        long rows = rebuild(from, to);
+        log.info("Backfilled daily stock flow from {} to {}: {} rows in {} ms", from, to, rows,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Rebuilds the most recent days, correcting movements written outside the service.
+     */
+    @Scheduled(cron = "${analytics.flow-rollup.recheck-cron:0 15 3 * * *}")
+    public void recheckRecentDays() {
+        LocalDate today = LocalDate.now();
+        long rows = rebuild(today.minusDays(recheckDays), today);
+        log.debug("Rechecked daily stock flow for the last {} days: {} rows", recheckDays, rows);
+    }
+
+    private long rebuildDay(LocalDate day) {
+        Integer rows = transactionTemplate.execute(status -> {
+            jdbcTemplate.query(LOCK_DAY_SQL, new MapSqlParameterSource("day", day.toString()), rs -> {
+            });
+            jdbcTemplate.update(DELETE_DAY_SQL, new MapSqlParameterSource("day", day));
+            return jdbcTemplate.update(REBUILD_DAY_SQL, new MapSqlParameterSource()
+                    .addValue("day", day)
+                    .addValue("from", day.atStartOfDay())
+                    .addValue("to", day.plusDays(1).atStartOfDay()));
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private Pending pending() {
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    /**
+     * Rollup changes of the current transaction. The days' shared locks are taken first, then
+     * rows are upserted in key order, all before the summary is written, so concurrent writers
+     * always lock them in the same order.
+     */
+    private final class Pending implements TransactionSynchronization {
+
+        private final Map<DailyStockFlow.Key, long[]> flows = new HashMap<>();
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE - 1;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (flows.isEmpty()) {
+                return;
+            }
+            List<Object[]> days = flows.keySet().stream()
+                    .map(key -> key.getFlowDate().toString())
+                    .distinct()
+                    .map(day -> new Object[]{day})
+                    .toList();
+            jdbcTemplate.query(LOCK_DAYS_SHARED_SQL, new MapSqlParameterSource("days", days), rs -> {
+            });
+            List<Object[]> rows = flows.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey(KEY_ORDER))
+                    .map(entry -> new Object[]{entry.getKey().getFlowDate(), entry.getKey().getType().name(),
+                            entry.getKey().getWarehouseId(), entry.getKey().getProductId(),
+                            entry.getValue()[0], entry.getValue()[1]})
+                    .toList();
+            for (int from = 0; from < rows.size(); from += UPSERT_CHUNK_SIZE) {
+                jdbcTemplate.update(UPSERT_SQL, new MapSqlParameterSource("rows",
+                        rows.subList(from, Math.min(from + UPSERT_CHUNK_SIZE, rows.size()))));
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(StockFlowRollupService.this);
+        }
+    }
+}
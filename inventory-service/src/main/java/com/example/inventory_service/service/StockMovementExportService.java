@@ -0,0 +1,297 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.exception.BadRequestException;
+import com.example.inventory_service.exception.ServiceUnavailableException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams stock movements straight from a database cursor to the response. Rows are read
+ * with a fixed fetch size inside a read-only transaction (the PostgreSQL driver only uses a
+ * server-side cursor when auto-commit is off) and written as they arrive, so memory use
+ * does not depend on how many rows match. Each export holds a pooled connection for as long
+ * as the client keeps reading, so only a few may run at once; callers reserve a slot with
+ * {@link #reserveSlot()} before streaming.
+ */
+@Service
+@Slf4j
+public class StockMovementExportService {
+
+    private static final String SELECT_SQL = """
+            SELECT id, product_id, warehouse_id, type, quantity, reference_id, reason, created_at
+            FROM stock_movements
+            """;
+
+    private static final String[] COLUMNS = {
+            "id", "productId", "warehouseId", "type", "quantity", "referenceId", "reason", "createdAt"
+    };
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Semaphore slots;
+
+    public StockMovementExportService(DataSource dataSource,
+                                      PlatformTransactionManager transactionManager,
+                                      ObjectMapper objectMapper,
+                                      @Value("${export.fetch-size:5000}") int fetchSize,
+                                      @Value("${export.max-concurrent:4}") int maxConcurrent) {
+        JdbcTemplate cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(cursorTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.slots = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Reserves one of the {@code export.max-concurrent} export slots. Close the slot once the
+     * export has finished or will not run; closing it more than once is harmless.
+     *
+     * @throws ServiceUnavailableException if every slot is taken
+     */
+    public Slot reserveSlot() {
+        if (!slots.tryAcquire()) {
+            throw new ServiceUnavailableException("Too many stock movement exports are running, try again later");
+        }
+        return new Slot(slots);
+    }
+
+    public static final class Slot implements AutoCloseable {
+
+        private final Semaphore slots;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Slot(Semaphore slots) {
+            this.slots = slots;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                slots.release();
+            }
+        }
+    }
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unsupported export format: " + value + " (use ndjson or csv)");
+            }
+        }
+    }
+
+    /**
+     * Writes all movements matching the filters, oldest first. Any filter may be
+     * {@code null}; {@code from} is inclusive and {@code to} exclusive.
+     *
+     * @return the number of rows written
+     */
+    public long export(UUID productId, UUID warehouseId, LocalDateTime from, LocalDateTime to,
+                       Format format, OutputStream out) throws IOException {
+        List<String> conditions = new ArrayList<>();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (productId != null) {
+            conditions.add("product_id = :productId");
+            params.addValue("productId", productId);
+        }
+        if (warehouseId != null) {
+            conditions.add("warehouse_id = :warehouseId");
+            params.addValue("warehouseId", warehouseId);
+        }
+        if (from != null) {
+            conditions.add("created_at >= :from");
+            params.addValue("from", from);
+        }
+        if (to != null) {
+            conditions.add("created_at < :to");
+            params.addValue("to", to);
+        }
+        String sql = SELECT_SQL
+                + (conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + "\n")
+                + "ORDER BY created_at, id";
+
+        long started = System.nanoTime();
+        RowWriter writer = format == Format.CSV
+                ? new CsvRowWriter(out)
+                : new NdjsonRowWriter(ndjsonGenerator(out));
+        try (writer) {
+            writer.start();
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(sql, params, rs -> {
+                try {
+                    writer.write(rs);
+                } catch (IOException e) {
+                    // usually the client went away; abandon the cursor
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Exported {} stock movements as {} in {} ms", writer.rows(), format,
+                (System.nanoTime() - started) / 1_000_000);
+        return writer.rows();
+    }
+
+    /**
+     * Jackson puts a space between root-level values by default. The rows are already
+     * separated by newlines, so the separator is turned off.
+     */
+    private JsonGenerator ndjsonGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    private abstract static class RowWriter implements Closeable {
+
+        private long rows;
+
+        void start() throws IOException {
+        }
+
+        final void write(ResultSet rs) throws SQLException, IOException {
+            writeRow(rs);
+            rows++;
+        }
+
+        abstract void writeRow(ResultSet rs) throws SQLException, IOException;
+
+        long rows() {
+            return rows;
+        }
+    }
+
+    private static final class NdjsonRowWriter extends RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        void writeRow(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeStringField(COLUMNS[0], rs.getString("id"));
+            generator.writeStringField(COLUMNS[1], rs.getString("product_id"));
+            generator.writeStringField(COLUMNS[2], rs.getString("warehouse_id"));
+            generator.writeStringField(COLUMNS[3], rs.getString("type"));
+            generator.writeNumberField(COLUMNS[4], rs.getInt("quantity"));
+            generator.writeStringField(COLUMNS[5], rs.getString("reference_id"));
+            generator.writeStringField(COLUMNS[6], rs.getString("reason"));
+            generator.writeStringField(COLUMNS[7], timestamp(rs));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class CsvRowWriter extends RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+
+        @Override
+        void start() throws IOException {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        void writeRow(ResultSet rs) throws SQLException, IOException {
+            writer.write(rs.getString("id"));
+            writer.write(',');
+            writer.write(rs.getString("product_id"));
+            writer.write(',');
+            writer.write(rs.getString("warehouse_id"));
+            writer.write(',');
+            writer.write(rs.getString("type"));
+            writer.write(',');
+            writer.write(Integer.toString(rs.getInt("quantity")));
+            writer.write(',');
+            writeField(rs.getString("reference_id"));
+            writer.write(',');
+            writeField(rs.getString("reason"));
+            writer.write(',');
+            writeField(timestamp(rs));
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    private static String timestamp(ResultSet rs) throws SQLException {
+        LocalDateTime createdAt = rs.getObject("created_at", LocalDateTime.class);
+        return createdAt != null ? createdAt.toString() : null;
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.exception.InsufficientStockException;
+import com.example.inventory_service.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Applies stock changes to the {@code inventory} table with single guarded statements
+ * instead of read-modify-write through the entity, so concurrent REST calls and Kafka
+ * consumers cannot lose updates.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockMutationService {
+
+    private static final String INCREASE_SQL = """
+            INSERT INTO inventory (id, product_id, warehouse_id, quantity, updated_at)
+            VALUES (:id, :productId, :warehouseId, :quantity, LOCALTIMESTAMP)
+            ON CONFLICT (product_id, warehouse_id)
+            DO UPDATE SET quantity = inventory.quantity + EXCLUDED.quantity, updated_at = EXCLUDED.updated_at
+            RETURNING id, quantity, updated_at
+            """;
+
+    private static final String DECREASE_SQL = """
+            UPDATE inventory SET quantity = quantity - :quantity, updated_at = LOCALTIMESTAMP
+            WHERE product_id = :productId AND warehouse_id = :warehouseId AND quantity >= :quantity
+            RETURNING id, quantity, updated_at
+            """;
+
+    private static final String CURRENT_QUANTITY_SQL = """
+            SELECT quantity FROM inventory WHERE product_id = :productId AND warehouse_id = :warehouseId
+            """;
+
+    private static final String LOCK_QUANTITIES_SQL = """
+            SELECT product_id, warehouse_id, quantity FROM inventory
+            WHERE (product_id, warehouse_id) IN (:keys)
+            ORDER BY product_id, warehouse_id
+            FOR UPDATE
+            """;
+
+    private static final String APPLY_DELTA_SQL = """
+            INSERT INTO inventory (id, product_id, warehouse_id, quantity, updated_at)
+            VALUES (:id, :productId, :warehouseId, :quantity, LOCALTIMESTAMP)
+            ON CONFLICT (product_id, warehouse_id)
+            DO UPDATE SET quantity = inventory.quantity + EXCLUDED.quantity, updated_at = EXCLUDED.updated_at
+            WHERE inventory.quantity + EXCLUDED.quantity >= 0
+            """;
+
+    private static final int LOCK_CHUNK_SIZE = 1000;
+
+    private static final RowMapper<StockLevel> STOCK_LEVEL_MAPPER = (rs, rowNum) -> new StockLevel(
+            rs.getObject("id", UUID.class),
+            rs.getInt("quantity"),
+            rs.getObject("updated_at", LocalDateTime.class));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final InventorySummaryService inventorySummaryService;
+
+    @Transactional
+    public StockLevel apply(UUID productId, UUID warehouseId, int delta) {
+        return delta >= 0 ? increase(productId, warehouseId, delta) : decrease(productId, warehouseId, -delta);
+    }
+
+    @Transactional
+    public StockLevel increase(UUID productId, UUID warehouseId, int quantity) {
+        MapSqlParameterSource params = keyParams(productId, warehouseId)
+                .addValue("id", UUID.randomUUID())
+                .addValue("quantity", quantity);
+        StockLevel level = jdbcTemplate.queryForObject(INCREASE_SQL, params, STOCK_LEVEL_MAPPER);
+        inventorySummaryService.recordStockChange(productId, quantity);
+        return level;
+    }
+
+    @Transactional
+    public StockLevel decrease(UUID productId, UUID warehouseId, int quantity) {
+        MapSqlParameterSource params = keyParams(productId, warehouseId)
+                .addValue("quantity", quantity);
+        List<StockLevel> updated = jdbcTemplate.query(DECREASE_SQL, params, STOCK_LEVEL_MAPPER);
+        if (updated.isEmpty()) {
+            throw rejection(productId, warehouseId, quantity);
+        }
+        inventorySummaryService.recordStockChange(productId, -quantity);
+        return updated.get(0);
+    }
+
+    /**
+     * Applies a list of signed changes in order. Each line is checked against the running
+     * quantity left by the lines before it; lines that would take stock below zero are
+     * rejected and skipped. Touched rows are locked up front and the net change per
+     * product/warehouse pair is then written with one JDBC batch.
+     */
+    @Transactional
+    public List<BatchLineResult> applyBatch(List<StockDelta> lines) {
+        Map<StockKey, Integer> running = lockQuantities(lines.stream()
+                .map(StockDelta::key)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        Map<StockKey, Integer> netDeltas = new HashMap<>();
+        List<BatchLineResult> results = new ArrayList<>(lines.size());
+
+        for (StockDelta line : lines) {
+            int current = running.getOrDefault(line.key(), 0);
+            int next = current + line.delta();
+            if (next < 0) {
+                results.add(new BatchLineResult(false, current));
+                continue;
+            }
+            running.put(line.key(), next);
+            netDeltas.merge(line.key(), line.delta(), Integer::sum);
+            results.add(new BatchLineResult(true, next));
+        }
+
+        applyNetDeltas(netDeltas);
+        return results;
+    }
+
+    private Map<StockKey, Integer> lockQuantities(Collection<StockKey> keys) {
+        Map<StockKey, Integer> quantities = new HashMap<>();
+        List<Object[]> tuples = keys.stream()
+                .sorted(StockKey.ORDER)
+                .map(key -> new Object[]{key.productId(), key.warehouseId()})
+                .toList();
+        for (int from = 0; from < tuples.size(); from += LOCK_CHUNK_SIZE) {
+            List<Object[]> chunk = tuples.subList(from, Math.min(from + LOCK_CHUNK_SIZE, tuples.size()));
+            jdbcTemplate.query(LOCK_QUANTITIES_SQL, new MapSqlParameterSource("keys", chunk), rs -> {
+                quantities.put(new StockKey(rs.getObject("product_id", UUID.class),
+                        rs.getObject("warehouse_id", UUID.class)), rs.getInt("quantity"));
+            });
+        }
+        return quantities;
+    }
+
+    /**
+     * Writes the net changes with one JDBC batch. Every row is locked and every line was
+     * checked against the locked quantity, so each statement applies; the update counts are
+     * not checked, as the driver reports them as unknown with {@code reWriteBatchedInserts}.
+     */
+    private void applyNetDeltas(Map<StockKey, Integer> netDeltas) {
+        SqlParameterSource[] batch = netDeltas.entrySet().stream()
+                .filter(entry -> entry.getValue() != 0)
+                .sorted(Map.Entry.comparingByKey(StockKey.ORDER))
+                .map(entry -> keyParams(entry.getKey().productId(), entry.getKey().warehouseId())
+                        .addValue("id", UUID.randomUUID())
+                        .addValue("quantity", entry.getValue()))
+                .toArray(SqlParameterSource[]::new);
+        if (batch.length == 0) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, batch);
+        netDeltas.forEach((key, delta) -> inventorySummaryService.recordStockChange(key.productId(), delta));
+        log.debug("Applied {} net stock changes in one batch", batch.length);
+    }
+
+    private RuntimeException rejection(UUID productId, UUID warehouseId, int requested) {
+        List<Integer> current = jdbcTemplate.queryForList(CURRENT_QUANTITY_SQL,
+                keyParams(productId, warehouseId), Integer.class);
+        if (current.isEmpty()) {
+            return new ResourceNotFoundException("Stock not found for product " + productId
+                    + " in warehouse " + warehouseId);
+        }
+        log.debug("Rejected stock decrease of {} for product {} in warehouse {} (available: {})",
+                requested, productId, warehouseId, current.get(0));
+        return new InsufficientStockException("Insufficient stock. Available: " + current.get(0)
+                + ", Requested: " + requested);
+    }
+
+    private MapSqlParameterSource keyParams(UUID productId, UUID warehouseId) {
+        return new MapSqlParameterSource()
+                .addValue("productId", productId)
+                .addValue("warehouseId", warehouseId);
+    }
+
+    public record StockLevel(UUID stockId, int quantity, LocalDateTime updatedAt) {
+    }
+
+    public record StockKey(UUID productId, UUID warehouseId) {
+
+        /**
+         * The order PostgreSQL sorts {@code (product_id, warehouse_id)} in, which is the order
+         * rows are locked in. uuid ordering there compares the bytes unsigned; UUID.compareTo
+         * is signed.
+         */
+        static final Comparator<StockKey> ORDER = Comparator
+                .comparing(StockKey::productId, StockKey::compareUnsigned)
+                .thenComparing(StockKey::warehouseId, StockKey::compareUnsigned);
+
+        private static int compareUnsigned(UUID a, UUID b) {
+            int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+            return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+        }
+    }
+
+    public record StockDelta(UUID productId, UUID warehouseId, int delta) {
+
+        public StockKey key() {
+            return new StockKey(productId, warehouseId);
+        }
+    }
+
+    public record BatchLineResult(boolean applied, int quantity) {
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.exception.BadRequestException;
+import com.example.inventory_service.model.StockMovement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Answers "which products moved the most units" over the last hour, day and 30 days from
+ * memory. Each window is a ring of time slots (5 minutes, 1 hour and 1 day wide), and each
+ * slot holds a {@link SpaceSaving} summary, so memory is fixed no matter how many products
+ * move. A query merges the slots inside the window; the window edge is rounded to the slot.
+ * <p>
+ * Committed movements are added as they are written. On startup the rings are seeded from
+ * the database (the daily rollup for the 30-day window), so the results are approximate but
+ * survive restarts. The seed replaces whatever was recorded before it, so movements that
+ * committed before startup finished are counted once, from the database.
+ */
+@Service
+@Slf4j
+public class TopMovedProductsTracker {
+
+    private static final String SEED_MOVEMENTS_SQL = """
+            SELECT CAST(FLOOR(EXTRACT(EPOCH FROM created_at) / :slotSeconds) AS bigint) AS slot,
+                   product_id, SUM(quantity) AS quantity, COUNT(*) AS movements
+            FROM stock_movements
+            WHERE created_at >= :since
+            GROUP BY 1, product_id
+            """;
+
+    private static final String SEED_DAYS_SQL = """
+            SELECT flow_date - DATE '1970-01-01' AS slot,
+                   product_id, SUM(quantity) AS quantity, SUM(movement_count) AS movements
+            FROM daily_stock_flow
+            WHERE flow_date >= :since
+            GROUP BY flow_date, product_id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final int capacity;
+    private Map<TimeWindow, Ring> rings;
+
+    public TopMovedProductsTracker(NamedParameterJdbcTemplate jdbcTemplate,
+            @Value("${analytics.top-moved.capacity:256}") int capacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.capacity = capacity;
+        this.rings = newRings();
+    }
+
+    public enum TimeWindow {
+        LAST_HOUR("1h", 300, 12),
+        LAST_DAY("24h", 3600, 24),
+        LAST_30_DAYS("30d", 86400, 30);
+
+        private final String label;
+        private final long slotSeconds;
+        private final int slots;
+
+        TimeWindow(String label, long slotSeconds, int slots) {
+            this.label = label;
+            this.slotSeconds = slotSeconds;
+            this.slots = slots;
+        }
+
+        public static TimeWindow parse(String value) {
+            for (TimeWindow window : values()) {
+                if (window.label.equalsIgnoreCase(value)) {
+                    return window;
+                }
+            }
+            throw new BadRequestException("Unsupported window: " + value + " (use 1h, 24h or 30d)");
+        }
+    }
+
+    public record Estimate(UUID productId, long quantity, long movements) {
+    }
+
+    /**
+     * Adds the movements to the windows once the current transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAfterCommit(List<StockMovement> movements) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(movements);
+            }
+        });
+    }
+
+    public synchronized void record(Collection<StockMovement> movements) {
+        for (StockMovement movement : movements) {
+            LocalDateTime createdAt = movement.getCreatedAt() != null ? movement.getCreatedAt() : LocalDateTime.now();
+            long epochSecond = createdAt.toEpochSecond(ZoneOffset.UTC);
+            for (Ring ring : rings.values()) {
+                ring.add(epochSecond / ring.slotSeconds, movement.getProductId(), movement.getQuantity(), 1);
+            }
+        }
+    }
+
+    /**
+     * The {@code limit} products with the most units moved in the window, largest first.
+     */
+    public List<Estimate> top(TimeWindow window, int limit) {
+        long now = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+        Map<UUID, long[]> merged = new HashMap<>();
+        synchronized (this) {
+            rings.get(window).mergeInto(now, merged);
+        }
+        PriorityQueue<Estimate> top = new PriorityQueue<>(Comparator.comparingLong(Estimate::quantity));
+        merged.forEach((productId, totals) -> {
+            top.add(new Estimate(productId, totals[0], totals[1]));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+        List<Estimate> result = new ArrayList<>(top);
+        result.sort(Comparator.comparingLong(Estimate::quantity).reversed());
+        return result;
+    }
+
+    /**
+     * Loads the windows from the database into fresh rings and swaps them in, dropping
+     * anything recorded so far: those movements are committed, so the queries count them.
+     * Seeding again gives the same result. A movement that commits while the queries run
+     * may be missed, which the estimates can afford.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        Map<TimeWindow, Ring> seeded = newRings();
+        seedRing(seeded.get(TimeWindow.LAST_HOUR), SEED_MOVEMENTS_SQL, new MapSqlParameterSource()
+                .addValue("slotSeconds", TimeWindow.LAST_HOUR.slotSeconds)
+                .addValue("since", now.minusHours(1)));
+        seedRing(seeded.get(TimeWindow.LAST_DAY), SEED_MOVEMENTS_SQL, new MapSqlParameterSource()
+                .addValue("slotSeconds", TimeWindow.LAST_DAY.slotSeconds)
+                .addValue("since", now.minusDays(1)));
+        seedRing(seeded.get(TimeWindow.LAST_30_DAYS), SEED_DAYS_SQL, new MapSqlParameterSource()
+                .addValue("since", LocalDate.now().minusDays(TimeWindow.LAST_30_DAYS.slots - 1L)));
+        synchronized (this) {
+            rings = seeded;
+        }
+        log.info("Seeded top moved products in {} ms", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void seedRing(Ring ring, String sql, MapSqlParameterSource params) {
+        jdbcTemplate.query(sql, params, rs -> {
+            ring.add(rs.getLong("slot"), rs.getObject("product_id", UUID.class),
+                    rs.getLong("quantity"), rs.getLong("movements"));
+        });
+    }
+
+    private Map<TimeWindow, Ring> newRings() {
+        Map<TimeWindow, Ring> newRings = new EnumMap<>(TimeWindow.class);
+        for (TimeWindow window : TimeWindow.values()) {
+            newRings.put(window, new Ring(window.slotSeconds, window.slots, capacity));
+        }
+        return newRings;
+    }
+
+    /**
+     * The last {@code size} time slots of one window, each with its own summary.
+     */
+    private static final class Ring {
+
+        private final long slotSeconds;
+        private final int capacity;
+        private final long[] slots;
+        private final SpaceSaving[] summaries;
+
+        Ring(long slotSeconds, int size, int capacity) {
+            this.slotSeconds = slotSeconds;
+            this.capacity = capacity;
+            this.slots = new long[size];
+            this.summaries = new SpaceSaving[size];
+            Arrays.fill(slots, Long.MIN_VALUE);
+        }
+
+        void add(long slot, UUID productId, long quantity, long movements) {
+            int index = (int) Math.floorMod(slot, (long) slots.length);
+            if (slot < slots[index]) {
+                return;
+            }
+            if (slot > slots[index]) {
+                slots[index] = slot;
+                summaries[index] = new SpaceSaving(capacity);
+            }
+            summaries[index].add(productId, quantity, movements);
+        }
+
+        void mergeInto(long nowEpochSecond, Map<UUID, long[]> merged) {
+            long current = nowEpochSecond / slotSeconds;
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] <= current - slots.length || slots[i] > current) {
+                    continue;
+                }
+                for (SpaceSaving.Counter counter : summaries[i].counters()) {
+                    long[] totals = merged.computeIfAbsent(counter.productId(), id -> new long[2]);
+                    totals[0] += counter.quantity();
+                    totals[1] += counter.movements();
+                }
+            }
+        }
+    }
+}
@@ -12,8 +12,11 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,6 +25,7 @@ import java.util.stream.Collectors;
 public class WarehouseService {
 
     private final WarehouseRepository warehouseRepository;
+    private final InventorySummaryService inventorySummaryService;
 
     @Transactional
     public WarehouseResponseDTO createWarehouse(WarehouseCreateDTO dto) {
@@ -35,6 +39,7 @@ public class WarehouseService {
                 .build();
 
         warehouse = warehouseRepository.save(warehouse);
+        inventorySummaryService.recordWarehouseAdded();
         log.info("Created warehouse with ID: {}", warehouse.getId());
         return WarehouseResponseDTO.fromEntity(warehouse);
     }
@@ -56,4 +61,10 @@ public class WarehouseService {
         return warehouseRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Warehouse not found with id: " + id));
     }
+
+    @Transactional(readOnly = true)
+    public Map<UUID, Warehouse> getWarehouseEntitiesByIds(Collection<UUID> ids) {
+        return warehouseRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Warehouse::getId, Function.identity()));
+    }
 }
@@ -0,0 +1,102 @@
+package com.example.inventory_service.benchmark;
+
+import com.example.inventory_service.security.JwtAuthenticationFilter;
+import com.example.inventory_service.security.JwtUtil;
+import com.example.inventory_service.security.JwtVerifier;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the bearer-token path of {@link JwtAuthenticationFilter} with the verified-claims
+ * cache, without it (one verification per request), and the previous behaviour of three
+ * verifications with a freshly built key and parser each. Run the same way as
+ * {@link StockEventCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "mySecretKeyForJWTTokenGenerationWhichIsVeryLongAndSecure2024";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    private String token;
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        token = Jwts.builder()
+                .subject("admin@example.com")
+                .claim("roles", List.of("ROLE_ADMIN", "ROLE_MANAGER"))
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        JwtUtil jwtUtil = new JwtUtil(SECRET);
+        cachedFilter = new JwtAuthenticationFilter(new JwtVerifier(jwtUtil, new SimpleMeterRegistry(), 10_000));
+        uncachedFilter = new JwtAuthenticationFilter(new JwtVerifier(jwtUtil, new SimpleMeterRegistry(), 0));
+        request = new MockHttpServletRequest("GET", "/api/inventory");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object filterWithCache() throws ServletException, IOException {
+        return authenticate(cachedFilter);
+    }
+
+    @Benchmark
+    public Object filterWithoutCache() throws ServletException, IOException {
+        return authenticate(uncachedFilter);
+    }
+
+    @Benchmark
+    public Object previousTripleVerification() {
+        Claims claims = null;
+        for (int i = 0; i < 3; i++) {
+            claims = Jwts.parser()
+                    .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+        }
+        return claims;
+    }
+
+    private Object authenticate(JwtAuthenticationFilter filter) throws ServletException, IOException {
+        filter.doFilter(request, response, NO_OP_CHAIN);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
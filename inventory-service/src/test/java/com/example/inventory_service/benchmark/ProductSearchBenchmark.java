@@ -0,0 +1,153 @@
+package com.example.inventory_service.benchmark;
+
+import com.example.inventory_service.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares one page of {@link ProductRepository} search (page query plus count query) on a
+ * generated catalog. The old search used {@code LIKE '%term%'} with no usable index; the
+ * new one uses the trigram indexes with relevance ranking. The catalog is generated in
+ * temporary tables, so nothing is left behind in the database.
+ *
+ * <p>Needs a running PostgreSQL with {@code pg_trgm} available. The connection defaults to
+ * the local {@code inventory_db} and can be changed with {@code -Dbench.jdbc.url},
+ * {@code -Dbench.jdbc.user} and {@code -Dbench.jdbc.password}. Run the same way as
+ * {@link StockEventCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    private static final String FILTERS = "(CAST(? AS VARCHAR) IS NULL OR p.category = ?) ";
+
+    private static final String LIKE_PAGE_SQL = "SELECT * FROM bench_products_plain p WHERE " + FILTERS +
+            "AND (LOWER(p.name) LIKE LOWER(CONCAT('%', ?, '%')) OR LOWER(p.sku) LIKE LOWER(CONCAT('%', ?, '%'))) " +
+            "ORDER BY p.name LIMIT 10";
+    private static final String LIKE_COUNT_SQL = "SELECT COUNT(*) FROM bench_products_plain p WHERE " + FILTERS +
+            "AND (LOWER(p.name) LIKE LOWER(CONCAT('%', ?, '%')) OR LOWER(p.sku) LIKE LOWER(CONCAT('%', ?, '%')))";
+
+    private static final String TRIGRAM_PAGE_SQL = "SELECT * FROM bench_products_trgm p WHERE " + FILTERS +
+            "AND (LOWER(p.name) LIKE CONCAT('%', ?, '%') OR LOWER(p.sku) LIKE CONCAT('%', ?, '%')) " +
+            "ORDER BY CASE WHEN LOWER(p.sku) = ? THEN 0 WHEN LOWER(p.name) = ? THEN 1 " +
+            "WHEN LOWER(p.sku) LIKE CONCAT(?, '%') THEN 2 WHEN LOWER(p.name) LIKE CONCAT(?, '%') THEN 3 " +
+            "ELSE 4 END, p.name LIMIT 10";
+    private static final String TRIGRAM_COUNT_SQL = "SELECT COUNT(*) FROM bench_products_trgm p WHERE " + FILTERS +
+            "AND (LOWER(p.name) LIKE CONCAT('%', ?, '%') OR LOWER(p.sku) LIKE CONCAT('%', ?, '%'))";
+
+    private static final String GENERATE_SQL = """
+            INSERT INTO %s (id, sku, name, category, unit_price)
+            SELECT gen_random_uuid(), 'SKU-' || lpad(i::text, 8, '0'), 'Item ' || md5(i::text),
+                   'category-' || (i %% 50), (i %% 1000) / 10.0
+            FROM generate_series(1, %d) AS i
+            """;
+
+    @Param({"100000", "1000000"})
+    private int catalogSize;
+
+    private Connection connection;
+    private PreparedStatement likePage;
+    private PreparedStatement likeCount;
+    private PreparedStatement trigramPage;
+    private PreparedStatement trigramCount;
+    private final List<String> terms = new ArrayList<>();
+    private int next;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/inventory_db"),
+                System.getProperty("bench.jdbc.user", "postgres"),
+                System.getProperty("bench.jdbc.password", "postgres"));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            for (String table : List.of("bench_products_plain", "bench_products_trgm")) {
+                statement.execute("CREATE TEMP TABLE " + table + " (id uuid PRIMARY KEY, sku varchar(255) NOT NULL, "
+                        + "name varchar(255) NOT NULL, category varchar(255), unit_price numeric(12, 2))");
+                statement.execute(GENERATE_SQL.formatted(table, catalogSize));
+                statement.execute("CREATE INDEX ON " + table + " (name)");
+            }
+            statement.execute("CREATE INDEX ON bench_products_trgm USING gin (LOWER(name) gin_trgm_ops)");
+            statement.execute("CREATE INDEX ON bench_products_trgm USING gin (LOWER(sku) gin_trgm_ops)");
+            statement.execute("ANALYZE bench_products_plain");
+            statement.execute("ANALYZE bench_products_trgm");
+
+            // Fragments of generated names: each matches a handful of products
+            try (ResultSet rs = statement.executeQuery("SELECT substr(md5((random() * " + catalogSize
+                    + ")::int::text), 3, 8) FROM generate_series(1, 64)")) {
+                while (rs.next()) {
+                    terms.add(rs.getString(1));
+                }
+            }
+        }
+        likePage = connection.prepareStatement(LIKE_PAGE_SQL);
+        likeCount = connection.prepareStatement(LIKE_COUNT_SQL);
+        trigramPage = connection.prepareStatement(TRIGRAM_PAGE_SQL);
+        trigramCount = connection.prepareStatement(TRIGRAM_COUNT_SQL);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long likeScan() throws SQLException {
+        String term = nextTerm();
+        bind(likePage, term, term);
+        bind(likeCount, term, term);
+        return drain(likePage) + drain(likeCount);
+    }
+
+    @Benchmark
+    public long trigramIndex() throws SQLException {
+        String term = nextTerm();
+        bind(trigramPage, term, term, term, term, term, term);
+        bind(trigramCount, term, term);
+        return drain(trigramPage) + drain(trigramCount);
+    }
+
+    private String nextTerm() {
+        return terms.get(next++ & (terms.size() - 1));
+    }
+
+    private static void bind(PreparedStatement statement, String... terms) throws SQLException {
+        statement.setString(1, null);
+        statement.setString(2, null);
+        for (int i = 0; i < terms.length; i++) {
+            statement.setString(i + 3, terms[i]);
+        }
+    }
+
+    private static long drain(PreparedStatement statement) throws SQLException {
+        long rows = 0;
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.inventory_service.benchmark;
+
+import com.example.inventory_service.dto.StockEventDTO;
+import com.example.inventory_service.dto.StockOrderEventDTO;
+import com.example.inventory_service.kafka.StockEventCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the binary stock event codec with the Jackson JSON path for a single line
+ * event and a 500-line order event. Payload sizes are printed once per trial.
+ *
+ * <p>Run from {@code inventory-service} with:
+ * <pre>
+ *   mvn test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *       com.example.inventory_service.benchmark.StockEventCodecBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockEventCodecBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private StockEventDTO lineEvent;
+    private StockOrderEventDTO orderEvent;
+    private byte[] lineJson;
+    private byte[] lineBinary;
+    private byte[] orderJson;
+    private byte[] orderBinary;
+
+    @Setup
+    public void setUp() throws IOException {
+        lineEvent = StockEventDTO.builder()
+                .eventId(UUID.randomUUID())
+                .eventType(StockEventDTO.STOCK_OUT_EVENT)
+                .productId(UUID.randomUUID())
+                .warehouseId(UUID.randomUUID())
+                .quantity(12)
+                .referenceId(UUID.randomUUID())
+                .timestamp(LocalDateTime.now())
+                .build();
+        orderEvent = StockOrderEventDTO.builder()
+                .eventId(UUID.randomUUID())
+                .eventType(StockEventDTO.STOCK_OUT_EVENT)
+                .referenceId(UUID.randomUUID())
+                .timestamp(LocalDateTime.now())
+                .items(IntStream.range(0, 500)
+                        .mapToObj(i -> new StockOrderEventDTO.Item(UUID.randomUUID(), UUID.randomUUID(), i + 1))
+                        .toList())
+                .build();
+
+        lineJson = objectMapper.writeValueAsBytes(lineEvent);
+        lineBinary = StockEventCodec.encode(lineEvent);
+        orderJson = objectMapper.writeValueAsBytes(orderEvent);
+        orderBinary = StockEventCodec.encode(orderEvent);
+        System.out.printf("%nPayload bytes: line event json=%d binary=%d, 500-line order json=%d binary=%d%n",
+                lineJson.length, lineBinary.length, orderJson.length, orderBinary.length);
+    }
+
+    @Benchmark
+    public byte[] encodeLineJson() throws IOException {
+        return objectMapper.writeValueAsBytes(lineEvent);
+    }
+
+    @Benchmark
+    public byte[] encodeLineBinary() {
+        return StockEventCodec.encode(lineEvent);
+    }
+
+    @Benchmark
+    public StockEventDTO decodeLineJson() throws IOException {
+        return objectMapper.readValue(lineJson, StockEventDTO.class);
+    }
+
+    @Benchmark
+    public Object decodeLineBinary() {
+        return StockEventCodec.decode(lineBinary);
+    }
+
+    @Benchmark
+    public byte[] encodeOrderJson() throws IOException {
+        return objectMapper.writeValueAsBytes(orderEvent);
+    }
+
+    @Benchmark
+    public byte[] encodeOrderBinary() {
+        return StockEventCodec.encode(orderEvent);
+    }
+
+    @Benchmark
+    public StockOrderEventDTO decodeOrderJson() throws IOException {
+        return objectMapper.readValue(orderJson, StockOrderEventDTO.class);
+    }
+
+    @Benchmark
+    public Object decodeOrderBinary() {
+        return StockEventCodec.decode(orderBinary);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StockEventCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.inventory_service.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncConfigTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService alertExecutor = new AsyncConfig().alertExecutor(meterRegistry, 1, 2);
+
+    @AfterEach
+    void tearDown() {
+        alertExecutor.shutdownNow();
+    }
+
+    @Test
+    void alertsBeyondQueueCapacityAreDroppedAndCounted() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger ran = new AtomicInteger();
+
+        alertExecutor.execute(() -> {
+            started.countDown();
+            await(release);
+            ran.incrementAndGet();
+        });
+        started.await();
+        for (int i = 0; i < 5; i++) {
+            alertExecutor.execute(ran::incrementAndGet);
+        }
+        release.countDown();
+        alertExecutor.shutdown();
+        alertExecutor.awaitTermination(5, TimeUnit.SECONDS);
+
+        assertThat(ran).hasValue(3);
+        assertThat(meterRegistry.counter("alert.dropped", "reason", "queue_full").count()).isEqualTo(3);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.inventory_service.controller;
+
+import com.example.inventory_service.service.FileStorageService.ImageFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageResponseWriterTests {
+
+    private final ImageResponseWriter writer = new ImageResponseWriter(Duration.ofDays(30), DataSize.ofBytes(64));
+
+    @TempDir
+    Path dir;
+
+    private byte[] content;
+    private ImageFile image;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        content = new byte[100];
+        Arrays.fill(content, (byte) 7);
+        content[0] = (byte) 0x89;
+        Path path = Files.write(dir.resolve("image.png"), content);
+        image = new ImageFile(UUID.randomUUID(), UUID.randomUUID(), "photo.png", path, "image/png",
+                content.length, "abc123", Instant.parse("2026-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void servesFullImageWithValidators() throws Exception {
+        MockHttpServletResponse response = get(new MockHttpServletRequest("GET", "/image"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(content);
+        assertThat(response.getContentType()).isEqualTo("image/png");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"abc123\"");
+        assertThat(response.getDateHeader(HttpHeaders.LAST_MODIFIED)).isEqualTo(image.lastModified().toEpochMilli());
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("max-age=2592000, public");
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+    }
+
+    @Test
+    void answersMatchingEtagWithNotModified() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/image");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"abc123\"");
+
+        MockHttpServletResponse response = get(request);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void servesSingleRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/image");
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-9");
+
+        MockHttpServletResponse response = get(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 0-9/100");
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, 0, 10));
+    }
+
+    @Test
+    void ignoresRangeForStaleIfRangeAndRejectsUnsatisfiableRange() throws Exception {
+        MockHttpServletRequest stale = new MockHttpServletRequest("GET", "/image");
+        stale.addHeader(HttpHeaders.RANGE, "bytes=0-9");
+        stale.addHeader(HttpHeaders.IF_RANGE, "\"older\"");
+        assertThat(get(stale).getContentAsByteArray()).isEqualTo(content);
+
+        MockHttpServletRequest outside = new MockHttpServletRequest("GET", "/image");
+        outside.addHeader(HttpHeaders.RANGE, "bytes=500-");
+        MockHttpServletResponse response = get(outside);
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */100");
+    }
+
+    @Test
+    void handsLargeBodiesToSendfile() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/image");
+        request.setAttribute(ImageResponseWriter.SENDFILE_SUPPORT, Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-");
+
+        MockHttpServletResponse response = get(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentLengthLong()).isEqualTo(90);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute(ImageResponseWriter.SENDFILE_FILENAME))
+                .isEqualTo(image.path().toAbsolutePath().toString());
+        assertThat(request.getAttribute(ImageResponseWriter.SENDFILE_START)).isEqualTo(10L);
+        assertThat(request.getAttribute(ImageResponseWriter.SENDFILE_END)).isEqualTo(100L);
+    }
+
+    private MockHttpServletResponse get(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(image, request, response);
+        return response;
+    }
+}
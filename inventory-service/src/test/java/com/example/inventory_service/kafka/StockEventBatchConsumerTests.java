@@ -0,0 +1,69 @@
+package com.example.inventory_service.kafka;
+
+import com.example.inventory_service.dto.StockEventDTO;
+import com.example.inventory_service.dto.StockOrderEventDTO;
+import com.example.inventory_service.exception.InsufficientStockException;
+import com.example.inventory_service.service.InventoryService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class StockEventBatchConsumerTests {
+
+    private final InventoryService inventoryService = mock(InventoryService.class);
+    private final StockEventBatchConsumer consumer = new StockEventBatchConsumer(inventoryService);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void badRecordsDoNotDropTheRestOfTheBatch() {
+        StockEventDTO stockIn = event();
+        StockEventDTO stockOut = event();
+        StockOrderEventDTO rejectedOrder = orderEvent();
+        StockOrderEventDTO order = orderEvent();
+        doThrow(new InsufficientStockException("Insufficient stock"))
+                .when(inventoryService).processStockOrderEvent(rejectedOrder);
+
+        consumer.consumeStockEvents(List.of(
+                record("stock.in.events", 0, stockIn),
+                // what ErrorHandlingDeserializer hands over for a record it could not parse
+                record("stock.out.events", 1, null),
+                record(StockEventDeserializer.STOCK_ORDER_TOPIC, 2, rejectedOrder),
+                record("stock.out.events", 3, stockOut),
+                record(StockEventDeserializer.STOCK_ORDER_TOPIC, 4, order)));
+
+        ArgumentCaptor<List<StockEventDTO>> events = ArgumentCaptor.forClass(List.class);
+        verify(inventoryService).processStockEventBatch(events.capture());
+        assertThat(events.getValue()).containsExactly(stockIn, stockOut);
+        assertThat(stockIn.getEventType()).isEqualTo(StockEventDTO.STOCK_IN_EVENT);
+        assertThat(stockOut.getEventType()).isEqualTo(StockEventDTO.STOCK_OUT_EVENT);
+        verify(inventoryService).processStockOrderEvent(rejectedOrder);
+        verify(inventoryService).processStockOrderEvent(order);
+    }
+
+    private static ConsumerRecord<String, Object> record(String topic, long offset, Object value) {
+        return new ConsumerRecord<>(topic, 0, offset, null, value);
+    }
+
+    private static StockEventDTO event() {
+        StockEventDTO event = new StockEventDTO();
+        event.setEventId(UUID.randomUUID());
+        event.setProductId(UUID.randomUUID());
+        event.setWarehouseId(UUID.randomUUID());
+        event.setQuantity(1);
+        return event;
+    }
+
+    private static StockOrderEventDTO orderEvent() {
+        return StockOrderEventDTO.builder()
+                .eventId(UUID.randomUUID())
+                .eventType(StockEventDTO.STOCK_OUT_EVENT)
+                .items(List.of(new StockOrderEventDTO.Item(UUID.randomUUID(), UUID.randomUUID(), 1)))
+                .build();
+    }
+}
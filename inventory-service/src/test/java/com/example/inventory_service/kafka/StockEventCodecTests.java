@@ -0,0 +1,98 @@
+package com.example.inventory_service.kafka;
+
+import com.example.inventory_service.dto.StockEventDTO;
+import com.example.inventory_service.dto.StockOrderEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StockEventCodecTests {
+
+    /**
+     * Produced by order-service's StockEventCodecTests; decoding it here keeps the two
+     * independent codecs in step.
+     */
+    private static final String ORDER_EVENT_V1 = "01020702"
+            + "00000000000000010000000000000002"
+            + "00000000000000030000000000000004"
+            + "00062627ae4cf6c0"
+            + "00000001"
+            + "0000000000000005000000000000000600000000000000070000000000000008"
+            + "0000002a";
+
+    @Test
+    void decodesOrderEventFromOrderService() {
+        Object decoded = StockEventCodec.decode(HexFormat.of().parseHex(ORDER_EVENT_V1));
+
+        assertThat(decoded).isEqualTo(StockOrderEventDTO.builder()
+                .eventId(new UUID(1, 2))
+                .eventType(StockEventDTO.STOCK_OUT_EVENT)
+                .referenceId(new UUID(3, 4))
+                .timestamp(LocalDateTime.of(2024, 11, 5, 10, 15, 30, 123_456_000))
+                .items(List.of(new StockOrderEventDTO.Item(new UUID(5, 6), new UUID(7, 8), 42)))
+                .build());
+    }
+
+    @Test
+    void roundTripsLineEvent() {
+        StockEventDTO event = StockEventDTO.builder()
+                .eventId(UUID.randomUUID())
+                .eventType(StockEventDTO.STOCK_IN_EVENT)
+                .productId(UUID.randomUUID())
+                .warehouseId(UUID.randomUUID())
+                .quantity(17)
+                .timestamp(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000))
+                .build();
+
+        byte[] encoded = StockEventCodec.encode(event);
+
+        assertThat(encoded).hasSize(4 + 16 + 8 + 36);
+        assertThat(StockEventCodec.decode(encoded)).isEqualTo(event);
+    }
+
+    @Test
+    void rejectsTruncatedAndUnknownVersions() {
+        byte[] encoded = HexFormat.of().parseHex(ORDER_EVENT_V1);
+
+        assertThatThrownBy(() -> StockEventCodec.decode(Arrays.copyOf(encoded, encoded.length - 1)))
+                .isInstanceOf(SerializationException.class);
+        encoded[0] = 2;
+        assertThatThrownBy(() -> StockEventCodec.decode(encoded))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("version");
+    }
+
+    @Test
+    void deserializerNegotiatesOnContentTypeHeader() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        StockEventDeserializer deserializer = new StockEventDeserializer(objectMapper);
+        StockEventDTO event = StockEventDTO.builder()
+                .eventId(UUID.randomUUID())
+                .productId(UUID.randomUUID())
+                .warehouseId(UUID.randomUUID())
+                .quantity(3)
+                .build();
+
+        RecordHeaders binaryHeaders = new RecordHeaders();
+        binaryHeaders.add(StockEventDeserializer.CONTENT_TYPE_HEADER,
+                StockEventCodec.CONTENT_TYPE_BINARY.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(deserializer.deserialize("stock.in.events", binaryHeaders, StockEventCodec.encode(event)))
+                .isEqualTo(event);
+        assertThat(deserializer.deserialize("stock.in.events", new RecordHeaders(),
+                objectMapper.writeValueAsBytes(event)))
+                .isEqualTo(event);
+    }
+}
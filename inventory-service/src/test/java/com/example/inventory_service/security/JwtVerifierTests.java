@@ -0,0 +1,61 @@
+package com.example.inventory_service.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtVerifierTests {
+
+    private static final String SECRET = "mySecretKeyForJWTTokenGenerationWhichIsVeryLongAndSecure2024";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JwtVerifier verifier = new JwtVerifier(new JwtUtil(SECRET), meterRegistry, 100);
+
+    @Test
+    void verifiesOnceThenServesFromCache() {
+        String token = token(SECRET, 60_000);
+
+        JwtVerifier.VerifiedToken first = verifier.verify(token).orElseThrow();
+        JwtVerifier.VerifiedToken second = verifier.verify(token).orElseThrow();
+
+        assertThat(first.username()).isEqualTo("staff@example.com");
+        assertThat(first.authorities()).containsExactly(
+                new SimpleGrantedAuthority("ROLE_STAFF"), new SimpleGrantedAuthority("ROLE_MANAGER"));
+        assertThat(second).isSameAs(first);
+        assertThat(timerCount("verified")).isEqualTo(1);
+        assertThat(timerCount("cached")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsForgedAndExpiredTokens() {
+        String forged = token("anotherSecretKeyThatIsAlsoLongEnoughForHmacSha256Signing", 60_000);
+        String expired = token(SECRET, -1_000);
+
+        assertThat(verifier.verify(forged)).isEmpty();
+        assertThat(verifier.verify(expired)).isEmpty();
+        assertThat(verifier.verify("not-a-jwt")).isEmpty();
+        assertThat(timerCount("rejected")).isEqualTo(3);
+    }
+
+    private long timerCount(String outcome) {
+        return meterRegistry.get("jwt.verification").tag("outcome", outcome).timer().count();
+    }
+
+    private static String token(String secret, long ttlMillis) {
+        return Jwts.builder()
+                .subject("staff@example.com")
+                .claim("roles", List.of("ROLE_STAFF", "MANAGER"))
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + ttlMillis))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.LowStockDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EmailServiceTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JavaMailSender mailSender = mock(JavaMailSender.class);
+    private final EmailService emailService = new EmailService(mailSender, meterRegistry, 2);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(emailService, "emailEnabled", true);
+        ReflectionTestUtils.setField(emailService, "fromEmail", "noreply@ims.com");
+        ReflectionTestUtils.setField(emailService, "alertEmailTo", "admin@ims.com");
+    }
+
+    @Test
+    void digestsBeyondRecipientLimitAreDroppedAndCounted() {
+        for (int i = 0; i < 5; i++) {
+            emailService.sendLowStockDigest(List.of(item()));
+        }
+
+        verify(mailSender, times(2)).send(any(SimpleMailMessage.class));
+        assertThat(meterRegistry.counter("alert.dropped", "reason", "rate_limited").count()).isEqualTo(3);
+        assertThat(meterRegistry.timer("alert.send").count()).isEqualTo(2);
+    }
+
+    @Test
+    void smtpFailuresAreCountedAndNotThrown() {
+        doThrow(new MailSendException("connection refused")).when(mailSender).send(any(SimpleMailMessage.class));
+
+        emailService.sendLowStockDigest(List.of(item()));
+
+        assertThat(meterRegistry.counter("alert.failed").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("alert.send").count()).isEqualTo(1);
+    }
+
+    private static LowStockDTO item() {
+        return LowStockDTO.builder()
+                .productId(UUID.randomUUID())
+                .productName("Widget")
+                .productSku("W-1")
+                .warehouseId(UUID.randomUUID())
+                .warehouseName("Main")
+                .currentQuantity(3)
+                .reorderLevel(10)
+                .build();
+    }
+}
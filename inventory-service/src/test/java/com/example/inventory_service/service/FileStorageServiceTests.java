@@ -0,0 +1,112 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.exception.BadRequestException;
+import com.example.inventory_service.model.ProductImage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "file.upload-dir=target/test-uploads")
+@Import(TestCatalog.class)
+class FileStorageServiceTests {
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    private UUID firstProductId;
+    private UUID secondProductId;
+
+    @BeforeEach
+    void setUp() {
+        firstProductId = catalog.product("IMG");
+        secondProductId = catalog.product("IMG");
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.cleanUp();
+    }
+
+    @Test
+    void identicalUploadsShareOneFileUntilLastReferenceIsDeleted() {
+        String marker = UUID.randomUUID().toString();
+        ProductImage first = fileStorageService.uploadProductImage(firstProductId, png("front.png", marker));
+        ProductImage second = fileStorageService.uploadProductImage(secondProductId, png("variant.png", marker));
+        ProductImage other = fileStorageService.uploadProductImage(secondProductId, png("back.png", marker + "x"));
+
+        Path shared = Paths.get(first.getFilePath());
+        assertThat(second.getFilePath()).isEqualTo(first.getFilePath());
+        assertThat(other.getFilePath()).isNotEqualTo(first.getFilePath());
+        String hash = first.getContentHash();
+        assertThat(shared).endsWith(Paths.get("sha256", hash.substring(0, 2), hash.substring(2, 4), hash));
+        assertThat(fileStorageService.getImageFile(second.getId()).fileName()).isEqualTo("variant.png");
+
+        fileStorageService.deleteProductImage(first.getId());
+        assertThat(shared).exists();
+
+        productService.deleteProduct(secondProductId);
+        assertThat(shared).doesNotExist();
+        assertThat(Paths.get(other.getFilePath())).doesNotExist();
+    }
+
+    @Test
+    void streamedUploadsAreCheckedAndStoredInOnePass() throws IOException {
+        byte[] bytes = png("ignored", UUID.randomUUID().toString()).getBytes();
+        ProductImage image = fileStorageService.uploadProductImage(firstProductId, null,
+                new ByteArrayInputStream(bytes), -1);
+
+        assertThat(image.getFileName()).isEqualTo("image.png");
+        assertThat(image.getContentType()).isEqualTo("image/png");
+        assertThat(image.getSizeBytes()).isEqualTo(bytes.length);
+        assertThat(Paths.get(image.getFilePath())).hasBinaryContent(bytes);
+
+        assertThatThrownBy(() -> fileStorageService.uploadProductImage(firstProductId, "notes.png",
+                new ByteArrayInputStream("plain text".getBytes()), -1))
+                .isInstanceOf(BadRequestException.class).hasMessageContaining("not a JPEG");
+        byte[] oversized = Arrays.copyOf(bytes, 6 * 1024 * 1024);
+        assertThatThrownBy(() -> fileStorageService.uploadProductImage(firstProductId, "huge.png",
+                new ByteArrayInputStream(oversized), -1))
+                .isInstanceOf(BadRequestException.class).hasMessageContaining("exceeds");
+        try (Stream<Path> leftovers = Files.list(Paths.get("target/test-uploads/tmp"))) {
+            assertThat(leftovers).isEmpty();
+        }
+    }
+
+    private static MockMultipartFile png(String name, String body) {
+        BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, body.hashCode());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new MockMultipartFile("file", name, "image/png", out.toByteArray());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.exception.BadRequestException;
+import com.example.inventory_service.service.FileStorageService.ImageFile;
+import com.example.inventory_service.service.ImageVariantService.ImageSize;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageVariantServiceTests {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void scalesOpaqueImagesToJpegWithinTheSize() throws Exception {
+        ImageVariantService service = service();
+        ImageFile original = store("photo.png", photo(1600, 1200, BufferedImage.TYPE_INT_RGB), "png");
+
+        ImageFile thumb = service.variant(original, ImageSize.THUMB).orElseThrow();
+        ImageFile medium = service.variant(original, ImageSize.MEDIUM).orElseThrow();
+
+        assertThat(thumb.contentType()).isEqualTo("image/jpeg");
+        assertThat(thumb.contentHash()).isEqualTo(original.contentHash() + "-thumb");
+        BufferedImage decoded = ImageIO.read(thumb.path().toFile());
+        assertThat(decoded.getWidth()).isEqualTo(200);
+        assertThat(decoded.getHeight()).isEqualTo(150);
+        assertThat(ImageIO.read(medium.path().toFile()).getWidth()).isEqualTo(800);
+        assertThat(thumb.size() * 10).isLessThan(original.size());
+        assertThat(service.variant(original, ImageSize.FULL)).containsSame(original);
+    }
+
+    @Test
+    void keepsTransparencyAndDoesNotUpscale() throws Exception {
+        ImageVariantService service = service();
+        ImageFile transparent = store("logo.png", photo(1000, 400, BufferedImage.TYPE_INT_ARGB), "png");
+        ImageFile small = store("icon.png", photo(120, 80, BufferedImage.TYPE_INT_RGB), "png");
+
+        ImageFile thumb = service.variant(transparent, ImageSize.THUMB).orElseThrow();
+        assertThat(thumb.contentType()).isEqualTo("image/png");
+        assertThat(ImageIO.read(thumb.path().toFile()).getColorModel().hasAlpha()).isTrue();
+
+        assertThat(service.variant(small, ImageSize.MEDIUM)).containsSame(small);
+        assertThat(dir.resolve("uploads/variants/medium")).doesNotExist();
+    }
+
+    @Test
+    void servesOriginalWhenImageCannotBeDecoded() throws Exception {
+        Path webp = Files.write(dir.resolve("image.webp"), "RIFF\0\0\0\0WEBPVP8 ".getBytes());
+        ImageFile original = new ImageFile(UUID.randomUUID(), UUID.randomUUID(), "image.webp", webp, "image/webp",
+                Files.size(webp), "ab12cd", Instant.EPOCH);
+
+        assertThat(service().variant(original, ImageSize.THUMB)).isEmpty();
+        assertThatThrownBy(() -> ImageSize.parse("huge")).isInstanceOf(BadRequestException.class);
+    }
+
+    private ImageVariantService service() {
+        return new ImageVariantService(executor, dir.resolve("uploads").toString(), 0.8f, 50_000_000);
+    }
+
+    private ImageFile store(String name, BufferedImage image, String format) throws Exception {
+        Path path = dir.resolve(name);
+        ImageIO.write(image, format, path.toFile());
+        String hash = UUID.randomUUID().toString().replace("-", "");
+        return new ImageFile(UUID.randomUUID(), UUID.randomUUID(), name, path, "image/" + format,
+                Files.size(path), hash, Instant.EPOCH);
+    }
+
+    private static BufferedImage photo(int width, int height, int type) {
+        Random random = new Random(7);
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int shade = (x * 255 / width) ^ (y * 255 / height);
+                int alpha = type == BufferedImage.TYPE_INT_ARGB ? (x < width / 2 ? 0x80 : 0xFF) : 0xFF;
+                image.setRGB(x, y, alpha << 24 | shade << 16 | (255 - shade) << 8 | random.nextInt(32));
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.StockAdjustBatchRequestDTO;
+import com.example.inventory_service.dto.StockAdjustBatchResponseDTO;
+import com.example.inventory_service.dto.StockAdjustLineResultDTO;
+import com.example.inventory_service.dto.StockAdjustRequestDTO;
+import com.example.inventory_service.model.InventoryStock;
+import com.example.inventory_service.repository.InventoryStockRepository;
+import com.example.inventory_service.service.StockMutationService.StockKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(TestCatalog.class)
+class InventoryServiceBatchTests {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryStockRepository inventoryStockRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    private UUID productId;
+    private UUID firstWarehouseId;
+    private UUID secondWarehouseId;
+
+    @BeforeEach
+    void setUp() {
+        productId = catalog.product("BATCH");
+        firstWarehouseId = catalog.warehouse("Batch test A");
+        secondWarehouseId = catalog.warehouse("Batch test B");
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.cleanUp();
+    }
+
+    @Test
+    void linesAreCheckedAgainstTheRunningQuantityAndNetted() {
+        UUID unknownProductId = UUID.randomUUID();
+
+        StockAdjustBatchResponseDTO response = inventoryService.adjustStockBatch(new StockAdjustBatchRequestDTO(List.of(
+                new StockAdjustRequestDTO(productId, firstWarehouseId, 10, "in"),
+                new StockAdjustRequestDTO(productId, firstWarehouseId, -4, "out"),
+                new StockAdjustRequestDTO(productId, firstWarehouseId, -100, "too many"),
+                new StockAdjustRequestDTO(productId, secondWarehouseId, -1, "nothing there"),
+                new StockAdjustRequestDTO(unknownProductId, firstWarehouseId, 5, "unknown product"),
+                new StockAdjustRequestDTO(productId, secondWarehouseId, 5, "in"),
+                new StockAdjustRequestDTO(productId, secondWarehouseId, -5, "back out"),
+                new StockAdjustRequestDTO(productId, firstWarehouseId, 3, "in"))));
+
+        assertThat(response.getTotalLines()).isEqualTo(8);
+        assertThat(response.getAppliedLines()).isEqualTo(5);
+        assertThat(response.getRejectedLines()).isEqualTo(3);
+        assertThat(response.getResults()).extracting(StockAdjustLineResultDTO::getStatus).containsExactly(
+                "APPLIED", "APPLIED", "REJECTED", "REJECTED", "REJECTED", "APPLIED", "APPLIED", "APPLIED");
+        assertThat(response.getResults()).extracting(StockAdjustLineResultDTO::getResultingQuantity)
+                .containsExactly(10, 6, 6, 0, null, 5, 0, 9);
+        assertThat(response.getResults().get(4).getMessage()).contains(unknownProductId.toString());
+
+        assertThat(inventoryStockRepository.findByProductIdAndWarehouseId(productId, firstWarehouseId))
+                .map(InventoryStock::getQuantity).contains(9);
+        // +5 and -5 net to nothing, so no row is written for the second warehouse
+        assertThat(inventoryStockRepository.findByProductIdAndWarehouseId(productId, secondWarehouseId)).isEmpty();
+    }
+
+    @Test
+    void keysAreSortedInTheOrderPostgresLocksThem() {
+        List<StockKey> keys = new ArrayList<>(IntStream.range(0, 200)
+                .mapToObj(i -> new StockKey(UUID.randomUUID(), UUID.randomUUID()))
+                .toList());
+        List<Object[]> rows = keys.stream().map(key -> new Object[]{key.productId(), key.warehouseId()}).toList();
+
+        List<StockKey> postgresOrder = jdbcTemplate.query("""
+                SELECT v.product_id, v.warehouse_id FROM (VALUES :rows) AS v(product_id, warehouse_id)
+                ORDER BY v.product_id, v.warehouse_id
+                """, new MapSqlParameterSource("rows", rows), (rs, rowNum) -> new StockKey(
+                rs.getObject("product_id", UUID.class), rs.getObject("warehouse_id", UUID.class)));
+
+        keys.sort(StockKey.ORDER);
+        assertThat(keys).containsExactlyElementsOf(postgresOrder);
+    }
+}
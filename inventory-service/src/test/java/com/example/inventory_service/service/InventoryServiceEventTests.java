@@ -0,0 +1,161 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.StockEventDTO;
+import com.example.inventory_service.dto.StockOrderEventDTO;
+import com.example.inventory_service.exception.InsufficientStockException;
+import com.example.inventory_service.model.InventoryStock;
+import com.example.inventory_service.repository.InventoryStockRepository;
+import com.example.inventory_service.repository.ProcessedStockEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import(TestCatalog.class)
+class InventoryServiceEventTests {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryStockRepository inventoryStockRepository;
+
+    @Autowired
+    private ProcessedStockEventRepository processedStockEventRepository;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    private final List<UUID> eventIds = new ArrayList<>();
+
+    private UUID productId;
+    private UUID warehouseId;
+
+    @BeforeEach
+    void setUp() {
+        productId = catalog.product("EVENT");
+        warehouseId = catalog.warehouse("Event test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        processedStockEventRepository.deleteAllById(eventIds);
+        eventIds.clear();
+        catalog.cleanUp();
+    }
+
+    @Test
+    void duplicateEventIdsInOneBatchAreAppliedOnce() {
+        UUID eventId = eventId();
+
+        int applied = inventoryService.processStockEventBatch(List.of(
+                stockIn(eventId, 5),
+                stockIn(eventId, 5),
+                stockIn(eventId(), 2)));
+
+        assertThat(applied).isEqualTo(2);
+        assertThat(quantity()).isEqualTo(7);
+        assertThat(movementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void redeliveredEventsAreSkipped() {
+        UUID eventId = eventId();
+
+        inventoryService.processStockIn(eventId, productId, warehouseId, 5, null);
+        inventoryService.processStockIn(eventId, productId, warehouseId, 5, null);
+        assertThat(quantity()).isEqualTo(5);
+
+        int applied = inventoryService.processStockEventBatch(List.of(
+                stockIn(eventId, 5),
+                stockIn(eventId(), 3)));
+
+        assertThat(applied).isEqualTo(1);
+        assertThat(quantity()).isEqualTo(8);
+        assertThat(movementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void orderEventAppliesEveryLine() {
+        UUID otherProductId = catalog.product("EVENT");
+
+        inventoryService.processStockOrderEvent(orderEvent(StockEventDTO.STOCK_IN_EVENT,
+                new StockOrderEventDTO.Item(productId, warehouseId, 4),
+                new StockOrderEventDTO.Item(otherProductId, warehouseId, 6),
+                new StockOrderEventDTO.Item(productId, warehouseId, 1)));
+
+        assertThat(quantity()).isEqualTo(5);
+        assertThat(quantity(otherProductId)).isEqualTo(6);
+        assertThat(movementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void orderEventIsAppliedAllOrNothing() {
+        UUID otherProductId = catalog.product("EVENT");
+        inventoryService.processStockIn(eventId(), productId, warehouseId, 5, null);
+        StockOrderEventDTO order = orderEvent(StockEventDTO.STOCK_OUT_EVENT,
+                new StockOrderEventDTO.Item(productId, warehouseId, 3),
+                new StockOrderEventDTO.Item(otherProductId, warehouseId, 1));
+
+        assertThatThrownBy(() -> inventoryService.processStockOrderEvent(order))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining(otherProductId.toString());
+
+        assertThat(quantity()).isEqualTo(5);
+        assertThat(movementCount()).isEqualTo(1);
+        // the claim was rolled back with the rest, so a corrected redelivery is not skipped
+        inventoryService.processStockIn(eventId(), otherProductId, warehouseId, 1, null);
+        inventoryService.processStockOrderEvent(order);
+        assertThat(quantity()).isEqualTo(2);
+        assertThat(quantity(otherProductId)).isZero();
+    }
+
+    private UUID eventId() {
+        UUID id = UUID.randomUUID();
+        eventIds.add(id);
+        return id;
+    }
+
+    private StockEventDTO stockIn(UUID eventId, int quantity) {
+        StockEventDTO event = new StockEventDTO();
+        event.setEventId(eventId);
+        event.setEventType(StockEventDTO.STOCK_IN_EVENT);
+        event.setProductId(productId);
+        event.setWarehouseId(warehouseId);
+        event.setQuantity(quantity);
+        return event;
+    }
+
+    private StockOrderEventDTO orderEvent(String eventType, StockOrderEventDTO.Item... items) {
+        return StockOrderEventDTO.builder()
+                .eventId(eventId())
+                .eventType(eventType)
+                .items(List.of(items))
+                .build();
+    }
+
+    private Integer quantity() {
+        return quantity(productId);
+    }
+
+    private Integer quantity(UUID productId) {
+        return inventoryStockRepository.findByProductIdAndWarehouseId(productId, warehouseId)
+                .map(InventoryStock::getQuantity)
+                .orElse(0);
+    }
+
+    private int movementCount() {
+        return inventoryService.getStockMovements(productId, warehouseId, Pageable.unpaged()).size();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.*;
+import com.example.inventory_service.exception.InsufficientStockException;
+import com.example.inventory_service.repository.InventoryStockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import(TestCatalog.class)
+class InventorySummaryServiceTests {
+
+    @Autowired
+    private InventorySummaryService inventorySummaryService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryStockRepository inventoryStockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        inventorySummaryService.reconcile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.cleanUp();
+        inventorySummaryService.reconcile();
+    }
+
+    @Test
+    void summaryTracksChangesWithoutReconciliation() {
+        AnalyticsSummaryDTO before = inventorySummaryService.getSummary();
+
+        UUID productId = catalog.product("SUM", product -> product.unitPrice(new BigDecimal("2.50")));
+        UUID warehouseId = catalog.warehouse("Summary test warehouse");
+        inventoryService.adjustStock(new StockAdjustRequestDTO(productId, warehouseId, 10, "in"));
+        inventoryService.adjustStockBatch(new StockAdjustBatchRequestDTO(List.of(
+                new StockAdjustRequestDTO(productId, warehouseId, -4, "out"),
+                new StockAdjustRequestDTO(productId, warehouseId, -100, "rejected"),
+                new StockAdjustRequestDTO(productId, warehouseId, 2, "in"))));
+        assertThatThrownBy(() -> inventoryService.adjustStock(new StockAdjustRequestDTO(productId, warehouseId, -50, "too many")))
+                .isInstanceOf(InsufficientStockException.class);
+        productService.updateProduct(productId, ProductUpdateDTO.builder().unitPrice(new BigDecimal("4.00")).build());
+
+        AnalyticsSummaryDTO after = inventorySummaryService.getSummary();
+        assertThat(after.getTotalProducts()).isEqualTo(before.getTotalProducts() + 1);
+        assertThat(after.getTotalWarehouses()).isEqualTo(before.getTotalWarehouses() + 1);
+        assertThat(after.getTotalStockUnits()).isEqualTo(before.getTotalStockUnits() + 8);
+        assertThat(after.getTotalStockValue()).isEqualByComparingTo(before.getTotalStockValue().add(new BigDecimal("32.00")));
+
+        inventorySummaryService.reconcile();
+        assertThat(inventorySummaryService.getSummary()).usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(after);
+    }
+
+    @Test
+    void priceChangeCountsStockCommittedBeforeIt() throws Exception {
+        UUID productId = catalog.product("SUM", product -> product.unitPrice(new BigDecimal("2.00")));
+        UUID warehouseId = catalog.warehouse("Summary test warehouse");
+        inventoryService.adjustStock(new StockAdjustRequestDTO(productId, warehouseId, 10, "in"));
+        BigDecimal before = inventorySummaryService.getSummary().getTotalStockValue();
+
+        CountDownLatch priceRecorded = new CountDownLatch(1);
+        CountDownLatch stockCommitted = new CountDownLatch(1);
+        Thread priceChange = Thread.ofVirtual().start(() -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> {
+                    productService.updateProduct(productId,
+                            ProductUpdateDTO.builder().unitPrice(new BigDecimal("5.00")).build());
+                    priceRecorded.countDown();
+                    try {
+                        stockCommitted.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertThat(priceRecorded.await(10, TimeUnit.SECONDS)).isTrue();
+        inventoryService.adjustStock(new StockAdjustRequestDTO(productId, warehouseId, 5, "in"));
+        stockCommitted.countDown();
+        priceChange.join();
+
+        // 5 units at the old price, then 15 units repriced by 3
+        assertThat(inventorySummaryService.getSummary().getTotalStockValue())
+                .isEqualByComparingTo(before.add(new BigDecimal("55.00")));
+    }
+
+    @Test
+    void deletingProductRemovesItsStock() {
+        AnalyticsSummaryDTO before = inventorySummaryService.getSummary();
+        UUID deletedProductId = catalog.product("SUM", product -> product.unitPrice(BigDecimal.TEN));
+        UUID warehouseId = catalog.warehouse("Summary test warehouse");
+        inventoryService.adjustStock(new StockAdjustRequestDTO(deletedProductId, warehouseId, 5, "in"));
+
+        productService.deleteProduct(deletedProductId);
+
+        AnalyticsSummaryDTO after = inventorySummaryService.getSummary();
+        assertThat(after.getTotalProducts()).isEqualTo(before.getTotalProducts());
+        assertThat(after.getTotalStockUnits()).isEqualTo(before.getTotalStockUnits());
+        assertThat(after.getTotalStockValue()).isEqualByComparingTo(before.getTotalStockValue());
+        assertThat(inventoryStockRepository.findByProductId(deletedProductId)).isEmpty();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.LowStockDTO;
+import com.example.inventory_service.dto.StockAdjustRequestDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@Import(TestCatalog.class)
+class LowStockAlertTrackerTests {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private LowStockAlertTracker lowStockAlertTracker;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    private UUID productId;
+    private UUID warehouseId;
+
+    @BeforeEach
+    void setUp() {
+        productId = catalog.product("LOW", product -> product.reorderLevel(10));
+        warehouseId = catalog.warehouse("Low stock test warehouse");
+        adjust(20);
+        lowStockAlertTracker.sendDigest();
+        clearInvocations(emailService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.cleanUp();
+    }
+
+    @Test
+    void alertsOncePerCrossingAndRearmsAboveMargin() {
+        adjust(-12);
+        adjust(-1);
+        adjust(-1);
+        assertThat(digestItems()).singleElement()
+                .satisfies(item -> assertThat(item.getCurrentQuantity()).isEqualTo(6));
+
+        // 11 is above the reorder level but inside the margin, so dropping back is not a new crossing
+        adjust(5);
+        adjust(-2);
+        assertThat(digestItems()).isEmpty();
+
+        adjust(10);
+        adjust(-10);
+        assertThat(digestItems()).singleElement()
+                .satisfies(item -> assertThat(item.getCurrentQuantity()).isEqualTo(9));
+    }
+
+    @Test
+    void restockedBeforeDigestIsLeftOut() {
+        adjust(-15);
+        adjust(10);
+        assertThat(digestItems()).isEmpty();
+    }
+
+    @Test
+    void stockInFromEventRearmsAlert() {
+        adjust(-15);
+        assertThat(digestItems()).singleElement()
+                .satisfies(item -> assertThat(item.getCurrentQuantity()).isEqualTo(5));
+
+        inventoryService.processStockIn(UUID.randomUUID(), productId, warehouseId, 20, UUID.randomUUID());
+        assertThat(digestItems()).isEmpty();
+
+        adjust(-20);
+        assertThat(digestItems()).singleElement()
+                .satisfies(item -> assertThat(item.getCurrentQuantity()).isEqualTo(5));
+    }
+
+    private void adjust(int quantity) {
+        inventoryService.adjustStock(new StockAdjustRequestDTO(productId, warehouseId, quantity, "test"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<LowStockDTO> digestItems() {
+        lowStockAlertTracker.sendDigest();
+        ArgumentCaptor<List<LowStockDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(emailService, atMost(1)).sendLowStockDigest(captor.capture());
+        clearInvocations(emailService);
+        return captor.getAllValues().stream()
+                .flatMap(List::stream)
+                .filter(item -> item.getProductId().equals(productId))
+                .toList();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(TestCatalog.class)
+class LowStockIndexTests {
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    private UUID productId;
+    private UUID firstWarehouseId;
+    private UUID secondWarehouseId;
+
+    @BeforeEach
+    void setUp() {
+        productId = catalog.product("LOW", product -> product.reorderLevel(10));
+        firstWarehouseId = catalog.warehouse("Low stock index A");
+        secondWarehouseId = catalog.warehouse("Low stock index B");
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.cleanUp();
+    }
+
+    @Test
+    void indexFollowsStockAndReorderLevelChanges() {
+        inventoryService.adjustStock(new StockAdjustRequestDTO(productId, firstWarehouseId, 20, "in"));
+        inventoryService.adjustStock(new StockAdjustRequestDTO(productId, secondWarehouseId, 8, "in"));
+        assertThat(lowQuantities()).containsExactly(8);
+
+        inventoryService.adjustStock(new StockAdjustRequestDTO(productId, firstWarehouseId, -15, "out"));
+        inventoryService.transferStock(new StockTransferRequestDTO(productId, firstWarehouseId, secondWarehouseId, 4, null));
+        assertThat(lowItems()).extracting(LowStockDTO::getWarehouseId).containsExactlyInAnyOrder(firstWarehouseId);
+        assertThat(lowQuantities()).containsExactly(1);
+
+        productService.updateProduct(productId, ProductUpdateDTO.builder().reorderLevel(12).build());
+        assertThat(lowQuantities()).containsExactlyInAnyOrder(1, 12);
+
+        List<LowStockDTO> live = lowItems();
+        lowStockIndex.rebuild();
+        assertThat(lowItems()).containsExactlyInAnyOrderElementsOf(live);
+
+        productService.deleteProduct(productId);
+        assertThat(lowStockIndex.findAll()).extracting(LowStockDTO::getWarehouseId)
+                .doesNotContain(firstWarehouseId, secondWarehouseId);
+    }
+
+    @Test
+    void lateAfterCommitDoesNotOverwriteNewerStock() throws Exception {
+        CountDownLatch committed = new CountDownLatch(1);
+        CountDownLatch newerCommitted = new CountDownLatch(1);
+        Thread older = Thread.ofVirtual().start(() -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> {
+                    inventoryService.adjustStock(new StockAdjustRequestDTO(productId, firstWarehouseId, 8, "in"));
+                    // runs before the index's own after-commit callback
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public int getOrder() {
+                            return Ordered.HIGHEST_PRECEDENCE;
+                        }
+
+                        @Override
+                        public void afterCommit() {
+                            committed.countDown();
+                            try {
+                                newerCommitted.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                    });
+                }));
+        assertThat(committed.await(10, TimeUnit.SECONDS)).isTrue();
+        inventoryService.adjustStock(new StockAdjustRequestDTO(productId, firstWarehouseId, 20, "in"));
+        newerCommitted.countDown();
+        older.join();
+
+        assertThat(lowItems()).isEmpty();
+    }
+
+    @Test
+    void scrollWalksIndexInCursorOrder() {
+        inventoryService.adjustStock(new StockAdjustRequestDTO(productId, firstWarehouseId, 1, "in"));
+        inventoryService.adjustStock(new StockAdjustRequestDTO(productId, secondWarehouseId, 2, "in"));
+
+        List<LowStockDTO> scrolled = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDTO<LowStockDTO> page = lowStockIndex.scroll(cursor, 1);
+            scrolled.addAll(page.getContent());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(scrolled).containsExactlyElementsOf(lowStockIndex.findAll());
+        assertThat(scrolled).filteredOn(item -> item.getProductId().equals(productId)).hasSize(2);
+    }
+
+    private List<LowStockDTO> lowItems() {
+        return lowStockIndex.findAll().stream()
+                .filter(item -> item.getProductId().equals(productId))
+                .toList();
+    }
+
+    private List<Integer> lowQuantities() {
+        return lowItems().stream().map(LowStockDTO::getCurrentQuantity).toList();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.config.AsyncConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ParallelQueryRunnerTests {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+    private final ParallelQueryRunner runner =
+            new ParallelQueryRunner(executor, transactionManager, jdbcTemplate, Duration.ofMillis(500));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void takesAsLongAsTheSlowestQuery() {
+        long started = System.nanoTime();
+
+        ParallelQueryRunner.Results results = runner.run(Map.<String, Callable<?>>of(
+                "a", () -> sleepThen(200, 1L),
+                "b", () -> sleepThen(200, 2L),
+                "c", () -> sleepThen(200, 3L)));
+
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        assertThat(results.isComplete()).isTrue();
+        assertThat(results.<Long>get("a") + results.<Long>get("b") + results.<Long>get("c")).isEqualTo(6L);
+        assertThat(elapsedMs).isLessThan(450);
+    }
+
+    @Test
+    void returnsPartialResultsWhenQueriesFailOrTimeOut() {
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        ParallelQueryRunner.Results results = runner.run(Map.<String, Callable<?>>of(
+                "fast", () -> "ok",
+                "broken", () -> {
+                    throw new IllegalStateException("boom");
+                },
+                "slow", () -> {
+                    try {
+                        return sleepThen(10_000, "late");
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                        throw e;
+                    }
+                }));
+
+        assertThat(results.isComplete()).isFalse();
+        assertThat(results.<String>get("fast")).isEqualTo("ok");
+        assertThat(results.<String>get("slow")).isNull();
+        assertThat(results.failures()).containsOnlyKeys("broken", "slow");
+        assertThat(results.failures().get("broken")).hasMessage("boom");
+        assertThat(results.failures().get("slow")).isInstanceOf(TimeoutException.class);
+        assertThat(awaitQuietly(interrupted)).as("timed out query is cancelled").isTrue();
+    }
+
+    @Test
+    void eachQuerySetsAStatementTimeoutForTheTimeLeft() {
+        ParallelQueryRunner.Results results = runner.run(Map.<String, Callable<?>>of(
+                "a", () -> "ok",
+                "b", () -> "ok"));
+
+        assertThat(results.isComplete()).isTrue();
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(jdbcTemplate, times(2))
+                .queryForObject(contains("statement_timeout"), params.capture(), eq(String.class));
+        assertThat(params.getAllValues()).allSatisfy(param -> {
+            String timeout = (String) param.getValue("timeout");
+            assertThat(timeout).endsWith("ms");
+            assertThat(Long.parseLong(timeout.substring(0, timeout.length() - 2))).isBetween(1L, 500L);
+        });
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void queriesBeyondTheQueueAreReportedAsFailures() {
+        ExecutorService bounded = new AsyncConfig().analyticsExecutor(new SimpleMeterRegistry(), 1, 1);
+        try {
+            ParallelQueryRunner boundedRunner =
+                    new ParallelQueryRunner(bounded, transactionManager, jdbcTemplate, Duration.ofMillis(500));
+
+            ParallelQueryRunner.Results results = boundedRunner.run(Map.<String, Callable<?>>of(
+                    "a", () -> sleepThen(100, "a"),
+                    "b", () -> sleepThen(100, "b"),
+                    "c", () -> sleepThen(100, "c")));
+
+            assertThat(results.values()).hasSize(2);
+            assertThat(results.failures()).hasSize(1)
+                    .allSatisfy((name, failure) -> assertThat(failure).isInstanceOf(RejectedExecutionException.class));
+        } finally {
+            bounded.shutdownNow();
+        }
+    }
+
+    private static <T> T sleepThen(long millis, T value) throws InterruptedException {
+        Thread.sleep(millis);
+        return value;
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
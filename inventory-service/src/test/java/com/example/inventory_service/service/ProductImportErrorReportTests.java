@@ -0,0 +1,84 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.ProductImportResultDTO;
+import com.example.inventory_service.dto.ProductImportResultDTO.RowError;
+import com.example.inventory_service.service.ProductImportService.Format;
+import com.example.inventory_service.service.ProductImportService.Mode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs imports with tiny chunks, so rows are spread over many chunks that finish in any
+ * order, and with a low cap on the errors reported.
+ */
+@SpringBootTest(properties = {"import.chunk-size=2", "import.max-errors=3"})
+class ProductImportErrorReportTests {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String prefix = "IMPERR-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.queryForList("SELECT id FROM products WHERE sku LIKE ?", UUID.class, prefix + "%")
+                .forEach(productService::deleteProduct);
+    }
+
+    @Test
+    void reportsTheErrorsOfTheLowestRows() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 40; i++) {
+            if (i % 4 == 0) {
+                ndjson.append("{\"sku\":\"").append(prefix).append(i).append("\"}\n");
+            } else {
+                ndjson.append("{\"sku\":\"").append(prefix).append(i).append("\",\"name\":\"Row ").append(i)
+                        .append("\"}\n");
+            }
+        }
+
+        ProductImportResultDTO result = importNdjson(ndjson.toString());
+
+        assertThat(result.getInserted()).isEqualTo(30);
+        assertThat(result.getFailed()).isEqualTo(10);
+        assertThat(result.getErrors()).extracting(RowError::getRow).containsExactly(4L, 8L, 12L);
+        assertThat(result.isErrorsTruncated()).isTrue();
+    }
+
+    @Test
+    void nullLineFailsOnlyItsOwnRow() throws Exception {
+        String ndjson = """
+                {"sku":"%1$sA","name":"Before"}
+                null
+                {"sku":"%1$sB","name":"After"}
+                """.formatted(prefix);
+
+        ProductImportResultDTO result = importNdjson(ndjson);
+
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getRow()).isEqualTo(2);
+            assertThat(error.getMessage()).isEqualTo("Expected a JSON object");
+        });
+    }
+
+    private ProductImportResultDTO importNdjson(String body) throws Exception {
+        return productImportService.importProducts(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), Format.NDJSON, Mode.INSERT);
+    }
+}
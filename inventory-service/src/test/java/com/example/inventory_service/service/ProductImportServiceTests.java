@@ -0,0 +1,143 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.ProductImportResultDTO;
+import com.example.inventory_service.dto.ProductImportResultDTO.RowError;
+import com.example.inventory_service.model.Product;
+import com.example.inventory_service.repository.ProductRepository;
+import com.example.inventory_service.service.ProductImportService.Format;
+import com.example.inventory_service.service.ProductImportService.Mode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductImportServiceTests {
+
+    private static final int BULK_ROWS = 1200;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String prefix = "IMP-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.queryForList("SELECT id FROM products WHERE sku LIKE ?", UUID.class, prefix + "%")
+                .forEach(productService::deleteProduct);
+    }
+
+    @Test
+    void importsCsvAndReportsRowErrors() throws Exception {
+        String csv = """
+                sku,name,description,unit_price,reorderLevel
+                %1$sA,Plain widget,,9.50,5
+                %1$sB,"Widget, deluxe","Says ""hello""
+                on two lines",12.00,
+                %1$sC,,missing name,1.00,1
+                %1$sA,Duplicate widget,,3.00,1
+                %1$sD,Bad price,,abc,1
+                """.formatted(prefix);
+
+        ProductImportResultDTO result = importCsv(csv, Mode.INSERT);
+
+        assertThat(result.getRows()).isEqualTo(5);
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting(RowError::getRow).containsExactly(3L, 4L, 5L);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("Name is required");
+        assertThat(result.getErrors().get(1).getMessage()).isEqualTo("Duplicate SKU, already on row 1");
+        assertThat(result.getErrors().get(2).getMessage()).isEqualTo("Invalid unitPrice: abc");
+
+        Product deluxe = productRepository.findBySku(prefix + "B").orElseThrow();
+        assertThat(deluxe.getName()).isEqualTo("Widget, deluxe");
+        assertThat(deluxe.getDescription()).isEqualTo("Says \"hello\"\non two lines");
+        assertThat(deluxe.getReorderLevel()).isEqualTo(10);
+
+        ProductImportResultDTO again = importCsv(csv, Mode.INSERT);
+        assertThat(again.getInserted()).isZero();
+        assertThat(again.getErrors()).extracting(RowError::getMessage)
+                .contains("Product with SKU " + prefix + "A already exists");
+    }
+
+    @Test
+    void importsLargeNdjsonInChunksAndUpserts() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < BULK_ROWS; i++) {
+            ndjson.append("{\"sku\":\"").append(prefix).append(i).append("\",\"name\":\"Bulk ").append(i)
+                    .append("\",\"category\":\"bulk\",\"unitPrice\":1.00}\n");
+        }
+        ndjson.append("{not json}\n");
+
+        ProductImportResultDTO inserted = importNdjson(ndjson.toString(), Mode.INSERT);
+        assertThat(inserted.getRows()).isEqualTo(BULK_ROWS + 1);
+        assertThat(inserted.getInserted()).isEqualTo(BULK_ROWS);
+        assertThat(inserted.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getMessage()).startsWith("Invalid JSON"));
+
+        String update = """
+                {"sku":"%1$s7","name":"Renamed","unitPrice":2.50}
+                {"sku":"%1$snew","name":"Brand new"}
+                """.formatted(prefix);
+        ProductImportResultDTO upserted = importNdjson(update, Mode.UPSERT);
+        assertThat(upserted.getUpdated()).isEqualTo(1);
+        assertThat(upserted.getInserted()).isEqualTo(1);
+
+        Product renamed = productRepository.findBySku(prefix + "7").orElseThrow();
+        assertThat(renamed.getName()).isEqualTo("Renamed");
+        assertThat(renamed.getCategory()).isEqualTo("bulk");
+        assertThat(renamed.getUnitPrice()).isEqualByComparingTo(new BigDecimal("2.50"));
+    }
+
+    @Test
+    void concurrentUpsertsOfTheSameNewSkusInsertOnceAndUpdateOnce() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < BULK_ROWS; i++) {
+            ndjson.append("{\"sku\":\"").append(prefix).append(i).append("\",\"name\":\"Race ").append(i)
+                    .append("\",\"unitPrice\":1.00}\n");
+        }
+
+        CompletableFuture<ProductImportResultDTO> first = CompletableFuture.supplyAsync(() -> upsert(ndjson));
+        CompletableFuture<ProductImportResultDTO> second = CompletableFuture.supplyAsync(() -> upsert(ndjson));
+
+        assertThat(first.get().getFailed() + second.get().getFailed()).isZero();
+        assertThat(first.get().getInserted() + second.get().getInserted()).isEqualTo(BULK_ROWS);
+        assertThat(first.get().getUpdated() + second.get().getUpdated()).isEqualTo(BULK_ROWS);
+    }
+
+    private ProductImportResultDTO upsert(CharSequence ndjson) {
+        try {
+            return importNdjson(ndjson.toString(), Mode.UPSERT);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ProductImportResultDTO importCsv(String body, Mode mode) throws Exception {
+        return productImportService.importProducts(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), Format.CSV, mode);
+    }
+
+    private ProductImportResultDTO importNdjson(String body, Mode mode) throws Exception {
+        return productImportService.importProducts(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), Format.NDJSON, mode);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.CursorPageDTO;
+import com.example.inventory_service.dto.ProductResponseDTO;
+import com.example.inventory_service.model.Product;
+import com.example.inventory_service.model.ProductImage;
+import com.example.inventory_service.repository.ProductImageRepository;
+import com.example.inventory_service.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(TestCatalog.class)
+class ProductListingQueryCountTests {
+
+    private static final int PRODUCTS = 12;
+    private static final int IMAGES_PER_PRODUCT = 2;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    private String category;
+
+    @BeforeEach
+    void setUp() {
+        category = "query-count-" + UUID.randomUUID();
+        for (int i = 0; i < PRODUCTS; i++) {
+            String name = "Query count product " + i;
+            Product product = productRepository.findById(
+                    catalog.product("QC", builder -> builder.name(name).category(category))).orElseThrow();
+            for (int j = 0; j < IMAGES_PER_PRODUCT; j++) {
+                productImageRepository.save(ProductImage.builder()
+                        .product(product)
+                        .fileName("image-" + j + ".png")
+                        .filePath("unused/image-" + j + ".png")
+                        .build());
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.cleanUp();
+    }
+
+    @Test
+    void listingIssuesSameNumberOfQueriesForAnyPageSize() {
+        long smallPage = statementsForPage(2);
+        long fullPage = statementsForPage(PRODUCTS);
+
+        // page query, count query and one image id query
+        assertThat(smallPage).isEqualTo(3);
+        assertThat(fullPage).isEqualTo(smallPage);
+    }
+
+    @Test
+    void listingStillReturnsImageUrls() {
+        Page<ProductResponseDTO> page = productService.getAllProducts(category, null, null, null,
+                PageRequest.of(0, PRODUCTS, Sort.by("name")));
+
+        assertThat(page.getContent()).hasSize(PRODUCTS)
+                .allSatisfy(product -> assertThat(product.getImageUrls())
+                        .hasSize(IMAGES_PER_PRODUCT)
+                        .allMatch(url -> url.startsWith("/api/products/" + product.getId() + "/images/")));
+    }
+
+    @Test
+    void scrollingACategoryWalksEveryProductInNameOrder() {
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDTO<ProductResponseDTO> page = productService.scrollProducts(category, cursor, 5);
+            page.getContent().forEach(product -> {
+                assertThat(product.getCategory()).isEqualTo(category);
+                names.add(product.getName());
+            });
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(names).hasSize(PRODUCTS).isSorted();
+    }
+
+    private long statementsForPage(int size) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        // a page smaller than the result set forces the separate count query
+        Page<ProductResponseDTO> page = productService.getAllProducts(category, null, null, null,
+                PageRequest.of(0, size, Sort.by("name")));
+        assertThat(page.getContent()).hasSize(Math.min(size, PRODUCTS));
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.DailyStockFlowDTO;
+import com.example.inventory_service.dto.StockTransferRequestDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(TestCatalog.class)
+class StockFlowRollupServiceTests {
+
+    @Autowired
+    private StockFlowRollupService stockFlowRollupService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    private UUID productId;
+    private UUID sourceId;
+    private UUID destinationId;
+
+    @BeforeEach
+    void setUp() {
+        productId = catalog.product("FLOW");
+        sourceId = catalog.warehouse("Flow source");
+        destinationId = catalog.warehouse("Flow destination");
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.cleanUp();
+        stockFlowRollupService.rebuild(LocalDate.now(), LocalDate.now());
+    }
+
+    @Test
+    void flowIsRolledUpAsMovementsAreWritten() {
+        inventoryService.processStockIn(UUID.randomUUID(), productId, sourceId, 20, null);
+        inventoryService.processStockOut(UUID.randomUUID(), productId, sourceId, 5, null);
+        inventoryService.transferStock(new StockTransferRequestDTO(productId, sourceId, destinationId, 3, "rebalance"));
+
+        assertToday(analyticsService.getDailyStockFlow(7, productId, null), 23, 8);
+        assertToday(analyticsService.getDailyStockFlow(7, productId, destinationId), 3, 0);
+
+        stockFlowRollupService.rebuild(LocalDate.now(), LocalDate.now());
+
+        assertToday(analyticsService.getDailyStockFlow(7, productId, null), 23, 8);
+        assertToday(analyticsService.getDailyStockFlow(7, null, sourceId), 20, 8);
+    }
+
+    private void assertToday(List<DailyStockFlowDTO> flow, long stockIn, long stockOut) {
+        assertThat(flow).hasSize(7);
+        assertThat(flow.subList(0, 6)).allSatisfy(day -> assertThat(day.getNetFlow()).isZero());
+        DailyStockFlowDTO today = flow.get(6);
+        assertThat(today.getDate()).isEqualTo(LocalDate.now());
+        assertThat(today.getStockIn()).isEqualTo(stockIn);
+        assertThat(today.getStockOut()).isEqualTo(stockOut);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.exception.ServiceUnavailableException;
+import com.example.inventory_service.model.StockMovement;
+import com.example.inventory_service.repository.StockMovementRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "export.max-concurrent=4")
+@Import(TestCatalog.class)
+class StockMovementExportServiceTests {
+
+    private static final int MAX_CONCURRENT = 4;
+
+    @Autowired
+    private StockMovementExportService exportService;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    private UUID productId;
+    private UUID warehouseId;
+
+    @BeforeEach
+    void setUp() {
+        productId = catalog.product("EXPORT");
+        warehouseId = catalog.warehouse("Export test warehouse");
+        stockMovementRepository.saveAll(List.of(
+                movement(StockMovement.MovementType.IN, 10, "initial, \"counted\" stock"),
+                movement(StockMovement.MovementType.OUT, 3, null),
+                movement(StockMovement.MovementType.ADJUST, 1, "line\nbreak")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.cleanUp();
+    }
+
+    @Test
+    void exportsCsvWithQuotedFields() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(productId, null, null, null, StockMovementExportService.Format.CSV, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertThat(rows).isEqualTo(3);
+        assertThat(csv).startsWith("id,productId,warehouseId,type,quantity,referenceId,reason,createdAt\r\n");
+        assertThat(csv).contains(",IN,10,,\"initial, \"\"counted\"\" stock\",");
+        assertThat(csv).contains(",OUT,3,,,");
+        assertThat(csv).contains(",ADJUST,1,,\"line\nbreak\",");
+    }
+
+    @Test
+    void exportsNdjsonFilteredByTimeRange() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(productId, warehouseId, LocalDateTime.now().minusHours(1),
+                LocalDateTime.now().plusHours(1), StockMovementExportService.Format.NDJSON, out);
+
+        String ndjson = out.toString(StandardCharsets.UTF_8);
+        List<String> lines = ndjson.lines().toList();
+        assertThat(rows).isEqualTo(3);
+        assertThat(ndjson).endsWith("}\n");
+        assertThat(lines).hasSize(3)
+                .allSatisfy(line -> assertThat(line).startsWith("{\"id\":\"").endsWith("}"));
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("productId").asText()).isEqualTo(productId.toString());
+        assertThat(first.get("quantity").asInt()).isEqualTo(10);
+
+        ByteArrayOutputStream future = new ByteArrayOutputStream();
+        assertThat(exportService.export(productId, null, LocalDateTime.now().plusHours(1), null,
+                StockMovementExportService.Format.NDJSON, future)).isZero();
+    }
+
+    @Test
+    void exportsBeyondTheSlotLimitAreRefused() {
+        List<StockMovementExportService.Slot> slots = new ArrayList<>();
+        try {
+            for (int i = 0; i < MAX_CONCURRENT; i++) {
+                slots.add(exportService.reserveSlot());
+            }
+            assertThatThrownBy(exportService::reserveSlot).isInstanceOf(ServiceUnavailableException.class);
+
+            // closing twice must not hand out an extra slot
+            slots.get(0).close();
+            slots.get(0).close();
+            slots.set(0, exportService.reserveSlot());
+            assertThatThrownBy(exportService::reserveSlot).isInstanceOf(ServiceUnavailableException.class);
+        } finally {
+            slots.forEach(StockMovementExportService.Slot::close);
+        }
+    }
+
+    private StockMovement movement(StockMovement.MovementType type, int quantity, String reason) {
+        return StockMovement.builder()
+                .productId(productId)
+                .warehouseId(warehouseId)
+                .type(type)
+                .quantity(quantity)
+                .reason(reason)
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.CursorPageDTO;
+import com.example.inventory_service.dto.StockAdjustRequestDTO;
+import com.example.inventory_service.dto.StockMovementResponseDTO;
+import com.example.inventory_service.exception.BadRequestException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import(TestCatalog.class)
+class StockMovementScrollTests {
+
+    private static final int MOVEMENTS = 7;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    private UUID productId;
+    private UUID warehouseId;
+
+    @BeforeEach
+    void setUp() {
+        productId = catalog.product("SCROLL");
+        warehouseId = catalog.warehouse("Scroll test warehouse");
+        for (int i = 0; i < MOVEMENTS; i++) {
+            inventoryService.adjustStock(new StockAdjustRequestDTO(productId, warehouseId, 100, "move-" + i));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.cleanUp();
+    }
+
+    @Test
+    void scrollingVisitsEveryMovementOnceNewestFirst() {
+        List<String> reasons = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageDTO<StockMovementResponseDTO> page =
+                    inventoryService.scrollStockMovements(productId, null, cursor, 3);
+            page.getContent().forEach(movement -> reasons.add(movement.getReason()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(reasons).containsExactly("move-6", "move-5", "move-4", "move-3", "move-2", "move-1", "move-0");
+    }
+
+    @Test
+    void warehouseFilterAloneOrCombinedFindsTheSameMovements() {
+        CursorPageDTO<StockMovementResponseDTO> byWarehouse =
+                inventoryService.scrollStockMovements(null, warehouseId, null, MOVEMENTS + 1);
+        CursorPageDTO<StockMovementResponseDTO> byBoth =
+                inventoryService.scrollStockMovements(productId, warehouseId, null, MOVEMENTS + 1);
+
+        assertThat(byWarehouse.getContent()).hasSize(MOVEMENTS);
+        assertThat(byWarehouse.getNextCursor()).isNull();
+        assertThat(byBoth.getContent()).extracting(StockMovementResponseDTO::getId)
+                .containsExactlyElementsOf(byWarehouse.getContent().stream()
+                        .map(StockMovementResponseDTO::getId)
+                        .toList());
+    }
+
+    @Test
+    void rejectsTamperedCursor() {
+        assertThatThrownBy(() -> inventoryService.scrollStockMovements(productId, null, "not-a-cursor", 3))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.exception.InsufficientStockException;
+import com.example.inventory_service.model.Product;
+import com.example.inventory_service.model.Warehouse;
+import com.example.inventory_service.repository.InventoryStockRepository;
+import com.example.inventory_service.repository.ProductRepository;
+import com.example.inventory_service.repository.WarehouseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class StockMutationServiceConcurrencyTests {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 50;
+    private static final int INITIAL_STOCK = 500;
+
+    @Autowired
+    private StockMutationService stockMutationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private InventoryStockRepository inventoryStockRepository;
+
+    private Product product;
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(Product.builder()
+                .sku("CONC-" + UUID.randomUUID())
+                .name("Concurrency test product")
+                .unitPrice(BigDecimal.ONE)
+                .build());
+        warehouse = warehouseRepository.save(Warehouse.builder()
+                .name("Concurrency test warehouse " + UUID.randomUUID())
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventoryStockRepository.findByProductIdAndWarehouseId(product.getId(), warehouse.getId())
+                .ifPresent(inventoryStockRepository::delete);
+        productRepository.deleteById(product.getId());
+        warehouseRepository.deleteById(warehouse.getId());
+    }
+
+    @Test
+    void concurrentDecrementsNeverOversellOrLoseUpdates() throws Exception {
+        stockMutationService.increase(product.getId(), warehouse.getId(), INITIAL_STOCK);
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    try {
+                        stockMutationService.decrease(product.getId(), warehouse.getId(), 1);
+                        succeeded.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        int attempts = THREADS * ATTEMPTS_PER_THREAD;
+        assertThat(succeeded.get()).isEqualTo(INITIAL_STOCK);
+        assertThat(rejected.get()).isEqualTo(attempts - INITIAL_STOCK);
+        assertThat(inventoryStockRepository.findByProductIdAndWarehouseId(product.getId(), warehouse.getId()))
+                .get()
+                .satisfies(stock -> assertThat(stock.getQuantity()).isZero());
+    }
+
+    @Test
+    void concurrentIncrementsOnMissingRowCreateItOnce() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    stockMutationService.increase(product.getId(), warehouse.getId(), 2);
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(inventoryStockRepository.findByProductIdAndWarehouseId(product.getId(), warehouse.getId()))
+                .get()
+                .satisfies(stock -> assertThat(stock.getQuantity()).isEqualTo(THREADS * ATTEMPTS_PER_THREAD * 2));
+    }
+}
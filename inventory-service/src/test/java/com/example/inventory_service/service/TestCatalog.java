@@ -0,0 +1,78 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.ProductCreateDTO;
+import com.example.inventory_service.dto.WarehouseCreateDTO;
+import com.example.inventory_service.repository.ProductRepository;
+import com.example.inventory_service.repository.StockMovementRepository;
+import com.example.inventory_service.repository.WarehouseRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Creates products and warehouses for integration tests through the services, and removes
+ * them again together with their stock, images and movements. Import it into the test and
+ * call {@link #cleanUp()} after each test.
+ */
+@TestComponent
+@RequiredArgsConstructor
+class TestCatalog {
+
+    private final ProductService productService;
+    private final WarehouseService warehouseService;
+    private final ProductRepository productRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final StockMovementRepository stockMovementRepository;
+
+    private final List<UUID> productIds = new ArrayList<>();
+    private final List<UUID> warehouseIds = new ArrayList<>();
+
+    UUID product(String skuPrefix) {
+        return product(skuPrefix, product -> {
+        });
+    }
+
+    /**
+     * Creates a product with a unique SKU and a unit price of one. The customizer can set
+     * any other field, or override those.
+     */
+    UUID product(String skuPrefix, Consumer<ProductCreateDTO.ProductCreateDTOBuilder> customizer) {
+        ProductCreateDTO.ProductCreateDTOBuilder product = ProductCreateDTO.builder()
+                .sku(skuPrefix + "-" + UUID.randomUUID())
+                .name(skuPrefix + " test product")
+                .unitPrice(BigDecimal.ONE);
+        customizer.accept(product);
+        UUID id = productService.createProduct(product.build()).getId();
+        productIds.add(id);
+        return id;
+    }
+
+    UUID warehouse(String name) {
+        UUID id = warehouseService.createWarehouse(new WarehouseCreateDTO(
+                name + " " + UUID.randomUUID(), null)).getId();
+        warehouseIds.add(id);
+        return id;
+    }
+
+    /**
+     * Deletes everything created since the last clean-up. Products a test already deleted
+     * are skipped.
+     */
+    void cleanUp() {
+        productIds.forEach(id -> {
+            stockMovementRepository.deleteAll(stockMovementRepository.findByProductId(id, Pageable.unpaged()));
+            if (productRepository.existsById(id)) {
+                productService.deleteProduct(id);
+            }
+        });
+        warehouseRepository.deleteAllById(warehouseIds);
+        productIds.clear();
+        warehouseIds.clear();
+    }
+}
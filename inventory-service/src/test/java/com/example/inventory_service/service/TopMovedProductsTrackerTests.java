@@ -0,0 +1,150 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.model.StockMovement;
+import com.example.inventory_service.service.TopMovedProductsTracker.Estimate;
+import com.example.inventory_service.service.TopMovedProductsTracker.TimeWindow;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Slf4j
+class TopMovedProductsTrackerTests {
+
+    private static final int PRODUCTS = 2000;
+    private static final int MOVEMENTS = 30_000;
+    private static final int TOP = 20;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String reason = "top-k accuracy " + UUID.randomUUID();
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM stock_movements WHERE reason = ?", reason);
+    }
+
+    @Test
+    void estimatesConvergeOnExactSqlTopListAsCapacityGrows() {
+        List<StockMovement> stream = skewedMovements(new Random(42));
+        UUID warehouseId = UUID.randomUUID();
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO stock_movements (id, product_id, warehouse_id, type, quantity, reason, created_at)
+                VALUES (?, ?, ?, 'OUT', ?, ?, LOCALTIMESTAMP)
+                """, stream, 1000, (ps, movement) -> {
+            ps.setObject(1, UUID.randomUUID());
+            ps.setObject(2, movement.getProductId());
+            ps.setObject(3, warehouseId);
+            ps.setInt(4, movement.getQuantity());
+            ps.setString(5, reason);
+        });
+        Map<UUID, Long> exact = new HashMap<>();
+        List<UUID> exactTop = new ArrayList<>();
+        jdbcTemplate.query("""
+                SELECT product_id, SUM(quantity) AS quantity FROM stock_movements
+                WHERE reason = ? GROUP BY product_id ORDER BY quantity DESC
+                """, rs -> {
+            UUID productId = rs.getObject("product_id", UUID.class);
+            exact.put(productId, rs.getLong("quantity"));
+            if (exactTop.size() < TOP) {
+                exactTop.add(productId);
+            }
+        }, reason);
+
+        for (int capacity : new int[]{25, 50, 100, 200, 400}) {
+            SpaceSaving summary = new SpaceSaving(capacity);
+            stream.forEach(movement -> summary.add(movement.getProductId(), movement.getQuantity(), 1));
+
+            long bound = summary.total() / capacity;
+            long maxError = 0;
+            for (SpaceSaving.Counter counter : summary.counters()) {
+                long overcount = counter.quantity() - exact.get(counter.productId());
+                assertThat(overcount).isBetween(0L, counter.error());
+                assertThat(counter.error()).isLessThanOrEqualTo(bound);
+                maxError = Math.max(maxError, overcount);
+            }
+            List<UUID> estimatedTop = summary.counters().stream().limit(TOP).map(SpaceSaving.Counter::productId).toList();
+            long hits = estimatedTop.stream().filter(exactTop::contains).count();
+            log.info("capacity {} ({}% of {} products): top-{} recall {}/{}, max overcount {} of {} units",
+                    capacity, capacity * 100 / PRODUCTS, exact.size(), TOP, hits, TOP, maxError, summary.total());
+            if (capacity >= 200) {
+                assertThat(estimatedTop).containsExactlyInAnyOrderElementsOf(exactTop);
+            }
+        }
+    }
+
+    @Test
+    void windowsOnlyCountMovementsInsideThem() {
+        TopMovedProductsTracker tracker = new TopMovedProductsTracker(namedJdbcTemplate, 256);
+        UUID recent = UUID.randomUUID();
+        UUID earlier = UUID.randomUUID();
+        tracker.record(List.of(
+                movement(recent, 5_000_000, LocalDateTime.now()),
+                movement(earlier, 4_000_000, LocalDateTime.now().minusHours(3)),
+                movement(earlier, 4_000_000, LocalDateTime.now().minusHours(3))));
+
+        assertThat(tracker.top(TimeWindow.LAST_HOUR, 2)).extracting(Estimate::productId).contains(recent)
+                .doesNotContain(earlier);
+        assertThat(tracker.top(TimeWindow.LAST_DAY, 2)).extracting(Estimate::productId)
+                .containsExactly(earlier, recent);
+        assertThat(tracker.top(TimeWindow.LAST_DAY, 1).get(0))
+                .isEqualTo(new Estimate(earlier, 8_000_000, 2));
+    }
+
+    @Test
+    void seedCountsMovementsRecordedBeforeItOnce() {
+        TopMovedProductsTracker tracker = new TopMovedProductsTracker(namedJdbcTemplate, 256);
+        UUID productId = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO stock_movements (id, product_id, warehouse_id, type, quantity, reason, created_at)
+                VALUES (?, ?, ?, 'OUT', 7000000, ?, LOCALTIMESTAMP)
+                """, UUID.randomUUID(), productId, UUID.randomUUID(), reason);
+        tracker.record(List.of(movement(productId, 7_000_000, LocalDateTime.now())));
+
+        tracker.seed();
+        tracker.seed();
+
+        assertThat(tracker.top(TimeWindow.LAST_HOUR, 1)).containsExactly(new Estimate(productId, 7_000_000, 1));
+        assertThat(tracker.top(TimeWindow.LAST_DAY, 1)).containsExactly(new Estimate(productId, 7_000_000, 1));
+    }
+
+    private List<StockMovement> skewedMovements(Random random) {
+        UUID[] products = new UUID[PRODUCTS];
+        double[] cumulative = new double[PRODUCTS];
+        double sum = 0;
+        for (int i = 0; i < PRODUCTS; i++) {
+            products[i] = UUID.randomUUID();
+            sum += 1 / Math.pow(i + 1, 1.1);
+            cumulative[i] = sum;
+        }
+        List<StockMovement> movements = new ArrayList<>(MOVEMENTS);
+        for (int i = 0; i < MOVEMENTS; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            UUID productId = products[Math.min(index < 0 ? -index - 1 : index, PRODUCTS - 1)];
+            movements.add(movement(productId, 1 + random.nextInt(10), null));
+        }
+        return movements;
+    }
+
+    private StockMovement movement(UUID productId, int quantity, LocalDateTime createdAt) {
+        return StockMovement.builder()
+                .productId(productId)
+                .type(StockMovement.MovementType.OUT)
+                .quantity(quantity)
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.order_service.controller;
 
+import com.example.order_service.dto.CursorPageDTO;
 import com.example.order_service.dto.PurchaseOrderCreateDTO;
 import com.example.order_service.dto.PurchaseOrderResponseDTO;
 import com.example.order_service.service.PurchaseOrderService;
@@ -48,6 +49,15 @@ public class PurchaseOrderController {
         return ResponseEntity.ok(purchaseOrderService.getAllPurchaseOrders(pageable));
     }
 
+    @GetMapping("/scroll")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Get purchase orders with cursor pagination, newest first")
+    public ResponseEntity<CursorPageDTO<PurchaseOrderResponseDTO>> scrollPurchaseOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(purchaseOrderService.scrollPurchaseOrders(cursor, size));
+    }
+
     @PatchMapping("/{id}/receive")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     @Operation(summary = "Receive a purchase order (increases stock)")
@@ -1,5 +1,6 @@
 package com.example.order_service.controller;
 
+import com.example.order_service.dto.CursorPageDTO;
 import com.example.order_service.dto.SalesOrderCreateDTO;
 import com.example.order_service.dto.SalesOrderResponseDTO;
 import com.example.order_service.service.SalesOrderService;
@@ -48,6 +49,15 @@ public class SalesOrderController {
         return ResponseEntity.ok(salesOrderService.getAllSalesOrders(pageable));
     }
 
+    @GetMapping("/scroll")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Get sales orders with cursor pagination, newest first")
+    public ResponseEntity<CursorPageDTO<SalesOrderResponseDTO>> scrollSalesOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(salesOrderService.scrollSalesOrders(cursor, size));
+    }
+
     @PatchMapping("/{id}/confirm")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     @Operation(summary = "Confirm a sales order (decreases stock)")
@@ -0,0 +1,97 @@
+package com.example.order_service.dto;
+
+import com.example.order_service.exception.BadRequestException;
+
+import java.io.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Opaque continuation tokens for keyset pagination. A token holds the sort key values of
+ * the last row of a page, in the listing's key order; the listing reads them back and
+ * resumes strictly after that row. Tokens are not signed: they carry nothing a client
+ * could not read from the page itself.
+ * <p>
+ * inventory-service carries an identical copy, together with {@link CursorPageDTO}. The services
+ * share no library, so change both copies together.
+ */
+public final class KeysetCursor {
+
+    public static final int MAX_SIZE = 500;
+
+    private static final int VERSION = 1;
+
+    private final List<String> keys;
+
+    private KeysetCursor(List<String> keys) {
+        this.keys = keys;
+    }
+
+    public static String encode(Object... keys) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte(keys.length);
+            for (Object key : keys) {
+                out.writeUTF(key.toString());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * @return the decoded cursor, or {@code null} for the first page
+     * @throws BadRequestException if the token was not issued for a listing with this many keys
+     */
+    public static KeysetCursor decode(String token, int keyCount) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readUnsignedByte() != VERSION || in.readUnsignedByte() != keyCount) {
+                throw invalid();
+            }
+            List<String> keys = new ArrayList<>(keyCount);
+            for (int i = 0; i < keyCount; i++) {
+                keys.add(in.readUTF());
+            }
+            return new KeysetCursor(keys);
+        } catch (IOException | IllegalArgumentException e) {
+            throw invalid();
+        }
+    }
+
+    public static int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_SIZE));
+    }
+
+    public String getString(int index) {
+        return keys.get(index);
+    }
+
+    public UUID getUuid(int index) {
+        try {
+            return UUID.fromString(keys.get(index));
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+    }
+
+    public LocalDateTime getTimestamp(int index) {
+        try {
+            return LocalDateTime.parse(keys.get(index));
+        } catch (DateTimeParseException e) {
+            throw invalid();
+        }
+    }
+
+    private static BadRequestException invalid() {
+        return new BadRequestException("Invalid cursor");
+    }
+}
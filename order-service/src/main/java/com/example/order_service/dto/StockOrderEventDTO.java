@@ -0,0 +1,58 @@
+package com.example.order_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * All stock lines of one purchase or sales order in a single message, so inventory-service
+ * applies the whole order in one transaction instead of one event per line item.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockOrderEventDTO {
+
+    public static final String STOCK_IN_EVENT = "STOCK_IN_EVENT";
+    public static final String STOCK_OUT_EVENT = "STOCK_OUT_EVENT";
+
+    private UUID eventId;
+    private String eventType;
+    private UUID referenceId;
+    private LocalDateTime timestamp;
+    private List<Item> items;
+
+    public static StockOrderEventDTO stockInEvent(UUID referenceId, List<Item> items) {
+        return create(STOCK_IN_EVENT, referenceId, items);
+    }
+
+    public static StockOrderEventDTO stockOutEvent(UUID referenceId, List<Item> items) {
+        return create(STOCK_OUT_EVENT, referenceId, items);
+    }
+
+    private static StockOrderEventDTO create(String eventType, UUID referenceId, List<Item> items) {
+        return StockOrderEventDTO.builder()
+                .eventId(UUID.randomUUID())
+                .eventType(eventType)
+                .referenceId(referenceId)
+                .timestamp(LocalDateTime.now())
+                .items(items)
+                .build();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        private UUID productId;
+        private UUID warehouseId;
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.order_service.kafka;
+
+import com.example.order_service.model.OutboxEvent;
+import com.example.order_service.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox to Kafka. Each poll takes a transaction-scoped advisory lock, so only
+ * one instance relays at a time; the others skip the poll. The relay reads a batch of the
+ * oldest rows, hands them all to the producer so they share request batches, waits for
+ * the acknowledgements and deletes the rows that were delivered. Rows that failed stay in
+ * the outbox and are retried on the next poll, together with any later rows for the same
+ * key, which are held back so per-key order is kept.
+ */
+@Component
+@ConditionalOnProperty(name = "kafka.enabled", havingValue = "true")
+@Slf4j
+public class OutboxRelay {
+
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration sendTimeout;
+
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Timer lagTimer;
+    private final Timer batchTimer;
+    private final AtomicLong oldestPendingAgeMs = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaTemplate<String, byte[]> kafkaTemplate,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.send-timeout:30s}") Duration sendTimeout) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+
+        this.publishedCounter = Counter.builder("outbox.relay.published")
+                .description("Outbox events delivered to Kafka")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.relay.failed")
+                .description("Outbox events whose delivery failed and will be retried")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("outbox.relay.lag")
+                .description("Time from an event being written to the outbox until Kafka acknowledged it")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.relay.batch")
+                .description("Time taken to publish one outbox batch")
+                .register(meterRegistry);
+        Gauge.builder("outbox.relay.oldest.age", oldestPendingAgeMs, AtomicLong::get)
+                .description("Age in milliseconds of the oldest pending outbox event at the last poll")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:200}")
+    public void relay() {
+        Integer delivered;
+        do {
+            delivered = transactionTemplate.execute(status -> relayBatch());
+        } while (delivered != null && delivered == batchSize);
+    }
+
+    /**
+     * Publishes one batch and returns how many events were delivered. A full batch means
+     * more rows are probably waiting, so {@link #relay()} keeps going until the outbox is
+     * drained or a delivery fails.
+     */
+    int relayBatch() {
+        if (!outboxEventRepository.tryLockRelay()) {
+            log.debug("Another instance is relaying the outbox, skipping this poll");
+            return 0;
+        }
+        List<OutboxEvent> batch = outboxEventRepository.findNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            oldestPendingAgeMs.set(0);
+            return 0;
+        }
+        oldestPendingAgeMs.set(Duration.between(batch.get(0).getCreatedAt(), LocalDateTime.now()).toMillis());
+
+        Timer.Sample sample = Timer.start();
+        List<Long> deliveredIds = new ArrayList<>(batch.size());
+        Set<String> failedKeys = new HashSet<>();
+        for (List<OutboxEvent> round : sendRounds(batch)) {
+            List<OutboxEvent> sending = round.stream()
+                    .filter(event -> event.getMessageKey() == null || !failedKeys.contains(event.getMessageKey()))
+                    .toList();
+            if (!awaitRound(sending, deliveredIds, failedKeys)) {
+                break;
+            }
+        }
+
+        outboxEventRepository.deleteAllByIdInBatch(deliveredIds);
+        publishedCounter.increment(deliveredIds.size());
+        sample.stop(batchTimer);
+        log.debug("Relayed {} of {} outbox events", deliveredIds.size(), batch.size());
+        return deliveredIds.size();
+    }
+
+    /**
+     * Splits a batch so that round {@code n} holds the {@code n}-th pending row of every key.
+     * A later row for a key is only sent once the one before it was acknowledged, which keeps
+     * a retried row from landing behind its successors. Rows without a key carry no ordering
+     * and all go in the first round.
+     */
+    private static List<List<OutboxEvent>> sendRounds(List<OutboxEvent> batch) {
+        Map<String, Integer> rowsPerKey = new HashMap<>();
+        List<List<OutboxEvent>> rounds = new ArrayList<>();
+        for (OutboxEvent event : batch) {
+            int round = event.getMessageKey() == null
+                    ? 0
+                    : rowsPerKey.merge(event.getMessageKey(), 1, Integer::sum) - 1;
+            if (round == rounds.size()) {
+                rounds.add(new ArrayList<>());
+            }
+            rounds.get(round).add(event);
+        }
+        return rounds;
+    }
+
+    /**
+     * Sends one round and waits for its acknowledgements. Returns {@code false} if the relay
+     * thread was interrupted and the batch should stop.
+     */
+    private boolean awaitRound(List<OutboxEvent> round, List<Long> deliveredIds, Set<String> failedKeys) {
+        List<CompletableFuture<SendResult<String, byte[]>>> futures = round.stream()
+                .map(this::send)
+                .toList();
+        kafkaTemplate.flush();
+
+        for (int i = 0; i < round.size(); i++) {
+            OutboxEvent event = round.get(i);
+            try {
+                futures.get(i).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                deliveredIds.add(event.getId());
+                lagTimer.record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+            } catch (ExecutionException | TimeoutException e) {
+                failedCounter.increment();
+                if (event.getMessageKey() != null) {
+                    failedKeys.add(event.getMessageKey());
+                }
+                log.warn("Failed to publish outbox event {} to {}, will retry: {}",
+                        event.getId(), event.getTopic(), e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private CompletableFuture<SendResult<String, byte[]>> send(OutboxEvent event) {
+        ProducerRecord<String, byte[]> record =
+                new ProducerRecord<>(event.getTopic(), event.getMessageKey(), event.getPayload());
+        record.headers().add(CONTENT_TYPE_HEADER, event.getContentType().getBytes(StandardCharsets.UTF_8));
+        return kafkaTemplate.send(record);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.order_service.kafka;
+
+import com.example.order_service.dto.StockOrderEventDTO;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of stock order events, sent with the {@link #CONTENT_TYPE_BINARY}
+ * content-type header. The layout matches inventory-service's decoder:
+ * <pre>
+ *   byte    schema version
+ *   byte    message kind (2 = order event)
+ *   byte    presence flags for eventId, referenceId and timestamp
+ *   byte    event type (1 = IN, 2 = OUT)
+ *   ...     present optional fields, then item count and items
+ * </pre>
+ * UUIDs are written as two big-endian longs and timestamps as UTC epoch microseconds.
+ * New fields must only ever be appended under a new schema version.
+ */
+public final class StockEventCodec {
+
+    public static final String CONTENT_TYPE_BINARY = "application/vnd.stock-event+binary";
+
+    static final byte VERSION_1 = 1;
+
+    private static final byte KIND_ORDER_EVENT = 2;
+
+    private static final int HAS_EVENT_ID = 1;
+    private static final int HAS_REFERENCE_ID = 1 << 1;
+    private static final int HAS_TIMESTAMP = 1 << 2;
+
+    private static final byte TYPE_NONE = 0;
+    private static final byte TYPE_STOCK_IN = 1;
+    private static final byte TYPE_STOCK_OUT = 2;
+
+    private static final int HEADER_SIZE = 4;
+    private static final int UUID_SIZE = 16;
+    private static final int ITEM_SIZE = 2 * UUID_SIZE + Integer.BYTES;
+
+    private StockEventCodec() {
+    }
+
+    public static byte[] encode(StockOrderEventDTO event) {
+        List<StockOrderEventDTO.Item> items = event.getItems();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 2 * UUID_SIZE + Long.BYTES
+                + Integer.BYTES + items.size() * ITEM_SIZE);
+        int flags = (event.getEventId() != null ? HAS_EVENT_ID : 0)
+                | (event.getReferenceId() != null ? HAS_REFERENCE_ID : 0)
+                | (event.getTimestamp() != null ? HAS_TIMESTAMP : 0);
+        buffer.put(VERSION_1).put(KIND_ORDER_EVENT).put((byte) flags).put(writeEventType(event.getEventType()));
+        if (event.getEventId() != null) {
+            writeUuid(buffer, event.getEventId());
+        }
+        if (event.getReferenceId() != null) {
+            writeUuid(buffer, event.getReferenceId());
+        }
+        if (event.getTimestamp() != null) {
+            buffer.putLong(toEpochMicros(event.getTimestamp()));
+        }
+        buffer.putInt(items.size());
+        for (StockOrderEventDTO.Item item : items) {
+            if (item.getProductId() == null || item.getWarehouseId() == null || item.getQuantity() == null) {
+                throw new SerializationException("Stock event line requires productId, warehouseId and quantity");
+            }
+            writeUuid(buffer, item.getProductId());
+            writeUuid(buffer, item.getWarehouseId());
+            buffer.putInt(item.getQuantity());
+        }
+        return buffer.position() == buffer.capacity()
+                ? buffer.array()
+                : Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    public static StockOrderEventDTO decode(byte[] data) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            byte version = buffer.get();
+            if (version != VERSION_1) {
+                throw new SerializationException("Unsupported stock event schema version: " + version);
+            }
+            byte kind = buffer.get();
+            if (kind != KIND_ORDER_EVENT) {
+                throw new SerializationException("Unexpected stock event kind: " + kind);
+            }
+            int flags = buffer.get();
+            String eventType = readEventType(buffer.get());
+            UUID eventId = (flags & HAS_EVENT_ID) != 0 ? readUuid(buffer) : null;
+            UUID referenceId = (flags & HAS_REFERENCE_ID) != 0 ? readUuid(buffer) : null;
+            LocalDateTime timestamp = (flags & HAS_TIMESTAMP) != 0 ? fromEpochMicros(buffer.getLong()) : null;
+            int count = buffer.getInt();
+            if (count < 0 || count > buffer.remaining() / ITEM_SIZE) {
+                throw new SerializationException("Invalid stock order event item count: " + count);
+            }
+            List<StockOrderEventDTO.Item> items = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                items.add(new StockOrderEventDTO.Item(readUuid(buffer), readUuid(buffer), buffer.getInt()));
+            }
+            return StockOrderEventDTO.builder()
+                    .eventId(eventId)
+                    .eventType(eventType)
+                    .referenceId(referenceId)
+                    .timestamp(timestamp)
+                    .items(items)
+                    .build();
+        } catch (BufferUnderflowException e) {
+            throw new SerializationException("Truncated stock event payload of " + data.length + " bytes", e);
+        }
+    }
+
+    private static byte writeEventType(String eventType) {
+        if (eventType == null) {
+            return TYPE_NONE;
+        }
+        return switch (eventType) {
+            case StockOrderEventDTO.STOCK_IN_EVENT -> TYPE_STOCK_IN;
+            case StockOrderEventDTO.STOCK_OUT_EVENT -> TYPE_STOCK_OUT;
+            default -> throw new SerializationException("Unknown stock event type: " + eventType);
+        };
+    }
+
+    private static String readEventType(byte code) {
+        return switch (code) {
+            case TYPE_NONE -> null;
+            case TYPE_STOCK_IN -> StockOrderEventDTO.STOCK_IN_EVENT;
+            case TYPE_STOCK_OUT -> StockOrderEventDTO.STOCK_OUT_EVENT;
+            default -> throw new SerializationException("Unknown stock event type code: " + code);
+        };
+    }
+
+    private static void writeUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static long toEpochMicros(LocalDateTime timestamp) {
+        return Math.addExact(Math.multiplyExact(timestamp.toEpochSecond(ZoneOffset.UTC), 1_000_000L),
+                timestamp.getNano() / 1_000);
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -1,75 +1,50 @@
 package com.example.order_service.kafka;
 
-import com.example.order_service.dto.StockEventDTO;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.order_service.dto.StockOrderEventDTO;
+import com.example.order_service.model.OutboxEvent;
+import com.example.order_service.repository.OutboxEventRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
-
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records stock events in the outbox as part of the caller's transaction. They are sent
+ * to Kafka by {@link OutboxRelay} once the order change has committed, so a slow broker
+ * no longer holds up the order and a rolled back order never publishes anything.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class StockEventProducer {
 
-    private static final String STOCK_IN_TOPIC = "stock.in.events";
-    private static final String STOCK_OUT_TOPIC = "stock.out.events";
+    public static final String STOCK_ORDER_TOPIC = "stock.order.events";
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final OutboxEventRepository outboxEventRepository;
+    private final StockEventSerializer stockEventSerializer;
 
     @Value("${kafka.enabled:false}")
     private boolean kafkaEnabled;
 
-    public void publishStockInEvent(StockEventDTO event) {
+    /**
+     * Queues one message carrying every line of the order, keyed by the order id.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishStockOrderEvent(StockOrderEventDTO event) {
         if (!kafkaEnabled) {
-            log.info("Kafka disabled. Stock IN event would be published: {}", event.getEventId());
+            log.info("Kafka disabled. Stock order event would be published: {} ({} lines)",
+                    event.getEventId(), event.getItems().size());
             return;
         }
 
-        try {
-            String message = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(STOCK_IN_TOPIC, event.getProductId().toString(), message)
-                    .whenComplete((result, ex) -> {
-                        if (ex != null) {
-                            log.error("Failed to publish stock IN event: {}", event.getEventId(), ex);
-                        } else {
-                            log.info("Published stock IN event: {} to partition {}",
-                                    event.getEventId(), result.getRecordMetadata().partition());
-                        }
-                    });
-            log.info("Sent stock IN event: {}", event.getEventId());
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize stock IN event", e);
-        } catch (Exception e) {
-            log.error("Failed to publish stock IN event: {}", event.getEventId(), e);
-        }
-    }
-
-    public void publishStockOutEvent(StockEventDTO event) {
-        if (!kafkaEnabled) {
-            log.info("Kafka disabled. Stock OUT event would be published: {}", event.getEventId());
-            return;
-        }
-
-        try {
-            String message = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(STOCK_OUT_TOPIC, event.getProductId().toString(), message)
-                    .whenComplete((result, ex) -> {
-                        if (ex != null) {
-                            log.error("Failed to publish stock OUT event: {}", event.getEventId(), ex);
-                        } else {
-                            log.info("Published stock OUT event: {} to partition {}",
-                                    event.getEventId(), result.getRecordMetadata().partition());
-                        }
-                    });
-            log.info("Sent stock OUT event: {}", event.getEventId());
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize stock OUT event", e);
-        } catch (Exception e) {
-            log.error("Failed to publish stock OUT event: {}", event.getEventId(), e);
-        }
+        outboxEventRepository.save(OutboxEvent.builder()
+                .topic(STOCK_ORDER_TOPIC)
+                .messageKey(event.getReferenceId().toString())
+                .contentType(stockEventSerializer.contentType())
+                .payload(stockEventSerializer.serialize(STOCK_ORDER_TOPIC, event))
+                .build());
+        log.info("Queued stock order event {} with {} lines in the outbox", event.getEventId(), event.getItems().size());
     }
 }
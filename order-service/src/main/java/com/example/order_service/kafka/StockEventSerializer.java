@@ -0,0 +1,49 @@
+package com.example.order_service.kafka;
+
+import com.example.order_service.dto.StockOrderEventDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Encodes stock order events for the outbox in the configured wire format. The matching
+ * content type is stored with each outbox row and sent as a record header, so consumers
+ * can decode rows written before and after a format switch.
+ */
+public class StockEventSerializer implements Serializer<StockOrderEventDTO> {
+
+    public static final String CONTENT_TYPE_JSON = "application/json";
+
+    public enum Format {
+        JSON,
+        BINARY
+    }
+
+    private final Format format;
+    private final ObjectMapper objectMapper;
+
+    public StockEventSerializer(Format format, ObjectMapper objectMapper) {
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    public String contentType() {
+        return format == Format.BINARY ? StockEventCodec.CONTENT_TYPE_BINARY : CONTENT_TYPE_JSON;
+    }
+
+    @Override
+    public byte[] serialize(String topic, StockOrderEventDTO event) {
+        if (event == null) {
+            return null;
+        }
+        if (format == Format.BINARY) {
+            return StockEventCodec.encode(event);
+        }
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Failed to serialize stock event: " + event.getEventId(), e);
+        }
+    }
+}
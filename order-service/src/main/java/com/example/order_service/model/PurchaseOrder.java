@@ -10,7 +10,9 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "purchase_orders")
+@Table(name = "purchase_orders", indexes = {
+        @Index(name = "idx_purchase_order_created_at", columnList = "created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -10,7 +10,9 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "sales_orders")
+@Table(name = "sales_orders", indexes = {
+        @Index(name = "idx_sales_order_created_at", columnList = "created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
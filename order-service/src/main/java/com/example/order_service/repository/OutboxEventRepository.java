@@ -0,0 +1,27 @@
+package com.example.order_service.repository;
+
+import com.example.order_service.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Takes the relay lock for the current transaction. Only one instance at a time may
+     * relay: two relays working on different rows of the same key would publish them out
+     * of order, so {@code false} means another instance is relaying and this one must skip.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtextextended('outbox_relay', 0))", nativeQuery = true)
+    boolean tryLockRelay();
+
+    /**
+     * Returns the oldest pending events. Callers must hold the relay lock, see
+     * {@link #tryLockRelay()}.
+     */
+    @Query(value = "SELECT * FROM outbox_events ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<OutboxEvent> findNextBatch(int limit);
+}
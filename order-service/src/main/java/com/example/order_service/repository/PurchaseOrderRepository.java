@@ -1,12 +1,17 @@
 package com.example.order_service.repository;
 
 import com.example.order_service.model.PurchaseOrder;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -19,4 +24,21 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, UU
     Page<PurchaseOrder> findByStatus(PurchaseOrder.OrderStatus status, Pageable pageable);
 
     Page<PurchaseOrder> findBySupplierNameContainingIgnoreCase(String supplierName, Pageable pageable);
+
+    @Query("SELECT po FROM PurchaseOrder po ORDER BY po.createdAt DESC, po.id DESC")
+    List<PurchaseOrder> findFirstKeysetPage(Limit limit);
+
+    @Query("SELECT po FROM PurchaseOrder po WHERE (po.createdAt, po.id) < (:createdAt, :id) " +
+           "ORDER BY po.createdAt DESC, po.id DESC")
+    List<PurchaseOrder> findKeysetPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") UUID id,
+                                    Limit limit);
+
+    /**
+     * Loads the items of the given orders with one query. The orders are already in the
+     * persistence context, so their items collections are filled in place instead of being
+     * loaded lazily one order at a time.
+     */
+    @Query("SELECT DISTINCT po FROM PurchaseOrder po LEFT JOIN FETCH po.items WHERE po IN :orders")
+    List<PurchaseOrder> fetchItems(@Param("orders") Collection<PurchaseOrder> orders);
 }
@@ -1,12 +1,17 @@
 package com.example.order_service.repository;
 
 import com.example.order_service.model.SalesOrder;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -19,4 +24,21 @@ public interface SalesOrderRepository extends JpaRepository<SalesOrder, UUID> {
     Page<SalesOrder> findByStatus(SalesOrder.OrderStatus status, Pageable pageable);
 
     Page<SalesOrder> findByCustomerNameContainingIgnoreCase(String customerName, Pageable pageable);
+
+    @Query("SELECT so FROM SalesOrder so ORDER BY so.createdAt DESC, so.id DESC")
+    List<SalesOrder> findFirstKeysetPage(Limit limit);
+
+    @Query("SELECT so FROM SalesOrder so WHERE (so.createdAt, so.id) < (:createdAt, :id) " +
+           "ORDER BY so.createdAt DESC, so.id DESC")
+    List<SalesOrder> findKeysetPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") UUID id,
+                                    Limit limit);
+
+    /**
+     * Loads the items of the given orders with one query. The orders are already in the
+     * persistence context, so their items collections are filled in place instead of being
+     * loaded lazily one order at a time.
+     */
+    @Query("SELECT DISTINCT so FROM SalesOrder so LEFT JOIN FETCH so.items WHERE so IN :orders")
+    List<SalesOrder> fetchItems(@Param("orders") Collection<SalesOrder> orders);
 }
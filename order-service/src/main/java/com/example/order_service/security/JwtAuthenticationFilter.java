@@ -8,22 +8,19 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
+    private final JwtVerifier jwtVerifier;
 
     @Override
     protected void doFilterInternal(
@@ -33,45 +30,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String userEmail;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwt = authHeader.substring(7);
+        String jwt = authHeader.substring(7);
 
         try {
-            if (jwtUtil.validateToken(jwt)) {
-                userEmail = jwtUtil.extractUsername(jwt);
-                List<String> roles = jwtUtil.extractRoles(jwt);
-
-                log.debug("JWT validated for user: {}, roles: {}", userEmail, roles);
-
-                if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    // Roles from JWT already have ROLE_ prefix (e.g., ROLE_ADMIN)
-                    // SimpleGrantedAuthority expects the full authority string
-                    List<SimpleGrantedAuthority> authorities = roles.stream()
-                            .map(role -> {
-                                // Ensure role has ROLE_ prefix for Spring Security
-                                String authority = role.startsWith("ROLE_") ? role : "ROLE_" + role;
-                                return new SimpleGrantedAuthority(authority);
-                            })
-                            .collect(Collectors.toList());
-
-                    log.debug("Authorities set: {}", authorities);
+            jwtVerifier.verify(jwt).ifPresent(token -> {
+                log.debug("JWT validated for user: {}, authorities: {}", token.username(), token.authorities());
 
+                if (token.username() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userEmail,
+                            token.username(),
                             null,
-                            authorities
+                            token.authorities()
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
-            }
+            });
         } catch (Exception e) {
             log.error("Cannot set user authentication: {}", e.getMessage());
         }
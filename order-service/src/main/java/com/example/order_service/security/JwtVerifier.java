@@ -0,0 +1,112 @@
+package com.example.order_service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies bearer tokens once and remembers the outcome. Verified claims are cached under
+ * the SHA-256 of the token until the token expires, so repeat requests with the same token
+ * skip the signature check and JSON parsing. Only tokens that passed verification are
+ * cached; the cache is bounded by {@code jwt.cache.max-size} and evicts least recently used.
+ */
+@Component
+@Slf4j
+public class JwtVerifier {
+
+    private final JwtUtil jwtUtil;
+    private final Cache<String, VerifiedToken> cache;
+
+    private final Timer cachedTimer;
+    private final Timer verifiedTimer;
+    private final Timer rejectedTimer;
+
+    public JwtVerifier(JwtUtil jwtUtil,
+                       MeterRegistry meterRegistry,
+                       @Value("${jwt.cache.max-size:10000}") long maxSize) {
+        this.jwtUtil = jwtUtil;
+        this.cache = maxSize > 0 ? Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.<String, VerifiedToken>creating((key, token) ->
+                        Duration.between(Instant.now(), token.expiresAt())))
+                .build() : null;
+
+        this.cachedTimer = verificationTimer(meterRegistry, "cached");
+        this.verifiedTimer = verificationTimer(meterRegistry, "verified");
+        this.rejectedTimer = verificationTimer(meterRegistry, "rejected");
+    }
+
+    /**
+     * Returns the verified user and authorities, or empty if the token is invalid or expired.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        long start = System.nanoTime();
+        String key = cache != null ? hash(token) : null;
+        VerifiedToken cached = key != null ? cache.getIfPresent(key) : null;
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            cachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.of(cached);
+        }
+
+        try {
+            Claims claims = jwtUtil.parseClaims(token);
+            VerifiedToken verified = toVerifiedToken(claims);
+            if (key != null && claims.getExpiration() != null) {
+                cache.put(key, verified);
+            }
+            verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.of(verified);
+        } catch (JwtException | IllegalArgumentException e) {
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.debug("Rejected JWT: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private VerifiedToken toVerifiedToken(Claims claims) {
+        List<String> roles = jwtUtil.extractRoles(claims);
+        // Roles from JWT already have ROLE_ prefix (e.g., ROLE_ADMIN); add it if missing
+        List<SimpleGrantedAuthority> authorities = roles == null ? List.of() : roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.startsWith("ROLE_") ? role : "ROLE_" + role))
+                .toList();
+        Instant expiresAt = claims.getExpiration() != null ? claims.getExpiration().toInstant() : Instant.MAX;
+        return new VerifiedToken(claims.getSubject(), authorities, expiresAt);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("jwt.verification")
+                .description("Time to authenticate a bearer token")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public record VerifiedToken(String username, List<SimpleGrantedAuthority> authorities, Instant expiresAt) {
+    }
+}
@@ -9,11 +9,13 @@ import com.example.order_service.model.PurchaseOrder;
 import com.example.order_service.repository.PurchaseOrderRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -57,6 +59,21 @@ public class PurchaseOrderService {
                 .map(PurchaseOrderResponseDTO::fromEntity);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PurchaseOrderResponseDTO> scrollPurchaseOrders(String cursor, int size) {
+        int pageSize = KeysetCursor.pageSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor, 2);
+        Limit limit = Limit.of(pageSize + 1);
+        List<PurchaseOrder> rows = after == null
+                ? purchaseOrderRepository.findFirstKeysetPage(limit)
+                : purchaseOrderRepository.findKeysetPageAfter(after.getTimestamp(0), after.getUuid(1), limit);
+        if (!rows.isEmpty()) {
+            purchaseOrderRepository.fetchItems(rows);
+        }
+        return CursorPageDTO.of(rows, pageSize, PurchaseOrderResponseDTO::fromEntity,
+                order -> KeysetCursor.encode(order.getCreatedAt(), order.getId()));
+    }
+
     @Transactional
     public PurchaseOrderResponseDTO receivePurchaseOrder(UUID id) {
         PurchaseOrder order = purchaseOrderRepository.findByIdWithItems(id)
@@ -69,15 +86,10 @@ public class PurchaseOrderService {
         order.setStatus(PurchaseOrder.OrderStatus.RECEIVED);
         order = purchaseOrderRepository.save(order);
 
-        for (PurchaseItem item : order.getItems()) {
-            StockEventDTO event = StockEventDTO.stockInEvent(
-                    item.getProductId(),
-                    item.getWarehouseId(),
-                    item.getQuantity(),
-                    order.getId()
-            );
-            stockEventProducer.publishStockInEvent(event);
-        }
+        List<StockOrderEventDTO.Item> items = order.getItems().stream()
+                .map(item -> new StockOrderEventDTO.Item(item.getProductId(), item.getWarehouseId(), item.getQuantity()))
+                .toList();
+        stockEventProducer.publishStockOrderEvent(StockOrderEventDTO.stockInEvent(order.getId(), items));
 
         log.info("Received purchase order: {}", order.getId());
         return PurchaseOrderResponseDTO.fromEntity(order);
@@ -9,11 +9,13 @@ import com.example.order_service.model.SalesOrder;
 import com.example.order_service.repository.SalesOrderRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -57,6 +59,21 @@ public class SalesOrderService {
                 .map(SalesOrderResponseDTO::fromEntity);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageDTO<SalesOrderResponseDTO> scrollSalesOrders(String cursor, int size) {
+        int pageSize = KeysetCursor.pageSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor, 2);
+        Limit limit = Limit.of(pageSize + 1);
+        List<SalesOrder> rows = after == null
+                ? salesOrderRepository.findFirstKeysetPage(limit)
+                : salesOrderRepository.findKeysetPageAfter(after.getTimestamp(0), after.getUuid(1), limit);
+        if (!rows.isEmpty()) {
+            salesOrderRepository.fetchItems(rows);
+        }
+        return CursorPageDTO.of(rows, pageSize, SalesOrderResponseDTO::fromEntity,
+                order -> KeysetCursor.encode(order.getCreatedAt(), order.getId()));
+    }
+
     @Transactional
     public SalesOrderResponseDTO confirmSalesOrder(UUID id) {
         SalesOrder order = salesOrderRepository.findByIdWithItems(id)
@@ -73,15 +90,10 @@ public class SalesOrderService {
         order.setStatus(SalesOrder.OrderStatus.CONFIRMED);
         order = salesOrderRepository.save(order);
 
-        for (SalesItem item : order.getItems()) {
-            StockEventDTO event = StockEventDTO.stockOutEvent(
-                    item.getProductId(),
-                    item.getWarehouseId(),
-                    item.getQuantity(),
-                    order.getId()
-            );
-            stockEventProducer.publishStockOutEvent(event);
-        }
+        List<StockOrderEventDTO.Item> items = order.getItems().stream()
+                .map(item -> new StockOrderEventDTO.Item(item.getProductId(), item.getWarehouseId(), item.getQuantity()))
+                .toList();
+        stockEventProducer.publishStockOrderEvent(StockOrderEventDTO.stockOutEvent(order.getId(), items));
 
         log.info("Confirmed sales order: {}", order.getId());
         return SalesOrderResponseDTO.fromEntity(order);
@@ -0,0 +1,163 @@
+package com.example.order_service.kafka;
+
+import com.example.order_service.model.OutboxEvent;
+import com.example.order_service.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OutboxRelayTests {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MockProducer<String, byte[]> producer;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAllInBatch();
+        producer = mockProducer(true);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void relayPublishesInOrderAndDrainsOutbox() {
+        outboxEventRepository.saveAll(IntStream.range(0, 25).mapToObj(this::event).toList());
+
+        newRelay(producer, 10).relay();
+
+        List<ProducerRecord<String, byte[]>> sent = producer.history();
+        assertThat(sent).hasSize(25);
+        assertThat(sent).extracting(record -> new String(record.value(), StandardCharsets.UTF_8))
+                .containsExactlyElementsOf(IntStream.range(0, 25).mapToObj(i -> "{\"n\":" + i + "}").toList());
+        assertThat(sent.get(0).headers().lastHeader(OutboxRelay.CONTENT_TYPE_HEADER).value())
+                .isEqualTo(StockEventSerializer.CONTENT_TYPE_JSON.getBytes(StandardCharsets.UTF_8));
+        assertThat(outboxEventRepository.count()).isZero();
+        assertThat(meterRegistry.counter("outbox.relay.published").count()).isEqualTo(25);
+    }
+
+    @Test
+    void failedSendsStayInOutbox() {
+        outboxEventRepository.saveAll(IntStream.range(0, 3).mapToObj(this::event).toList());
+        MockProducer<String, byte[]> failing = mockProducer(false);
+        OutboxRelay relay = newRelay(failing, 10);
+
+        Thread.ofVirtual().start(() -> {
+            while (failing.history().size() < 3) {
+                Thread.onSpinWait();
+            }
+            failing.completeNext();
+            failing.errorNext(new RuntimeException("broker unavailable"));
+            failing.completeNext();
+        });
+        relay.relay();
+
+        assertThat(outboxEventRepository.count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("outbox.relay.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void laterEventsForFailedKeyAreHeldBack() {
+        outboxEventRepository.saveAll(IntStream.range(0, 4).mapToObj(this::event).toList());
+        MockProducer<String, byte[]> failing = mockProducer(false);
+        OutboxRelay relay = newRelay(failing, 10);
+
+        Thread.ofVirtual().start(() -> {
+            while (failing.history().size() < 3) {
+                Thread.onSpinWait();
+            }
+            failing.errorNext(new RuntimeException("broker unavailable"));
+            failing.completeNext();
+            failing.completeNext();
+        });
+        relay.relay();
+
+        assertThat(failing.history()).extracting(ProducerRecord::key)
+                .containsExactly("key-0", "key-1", "key-2");
+        assertThat(outboxEventRepository.count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("outbox.relay.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void relaySkipsWhileAnotherInstanceHoldsTheLock() throws Exception {
+        outboxEventRepository.saveAll(IntStream.range(0, 3).mapToObj(this::event).toList());
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread otherInstance = Thread.ofVirtual().start(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    assertThat(outboxEventRepository.tryLockRelay()).isTrue();
+                    locked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        locked.await();
+
+        newRelay(producer, 10).relay();
+        assertThat(producer.history()).isEmpty();
+        assertThat(outboxEventRepository.count()).isEqualTo(3);
+
+        release.countDown();
+        otherInstance.join();
+        newRelay(producer, 10).relay();
+        assertThat(producer.history()).hasSize(3);
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    private OutboxRelay newRelay(MockProducer<String, byte[]> mockProducer, int batchSize) {
+        ProducerFactory<String, byte[]> producerFactory = () -> mockProducer;
+        return new OutboxRelay(outboxEventRepository, new KafkaTemplate<>(producerFactory),
+                transactionManager, meterRegistry, batchSize, Duration.ofSeconds(5));
+    }
+
+    /**
+     * The template closes its producer after every send unless the factory caches it, so
+     * the mock ignores close to keep its history across the whole relay run. Flush is a
+     * no-op as well, because the mock would otherwise complete every pending send.
+     */
+    private static MockProducer<String, byte[]> mockProducer(boolean autoComplete) {
+        return new MockProducer<>(autoComplete, null, new StringSerializer(), new ByteArraySerializer()) {
+            @Override
+            public void close(Duration timeout) {
+            }
+
+            @Override
+            public void flush() {
+            }
+        };
+    }
+
+    private OutboxEvent event(int n) {
+        return OutboxEvent.builder()
+                .topic(StockEventProducer.STOCK_ORDER_TOPIC)
+                .messageKey("key-" + (n % 3))
+                .contentType(StockEventSerializer.CONTENT_TYPE_JSON)
+                .payload(("{\"n\":" + n + "}").getBytes(StandardCharsets.UTF_8))
+                .build();
+    }
+}
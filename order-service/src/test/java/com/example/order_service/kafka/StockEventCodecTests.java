@@ -0,0 +1,55 @@
+package com.example.order_service.kafka;
+
+import com.example.order_service.dto.StockOrderEventDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockEventCodecTests {
+
+    /**
+     * The same bytes are decoded by inventory-service's StockEventCodecTests, which keeps
+     * the two independent codecs in step.
+     */
+    static final String ORDER_EVENT_V1 = "01020702"
+            + "00000000000000010000000000000002"
+            + "00000000000000030000000000000004"
+            + "00062627ae4cf6c0"
+            + "00000001"
+            + "0000000000000005000000000000000600000000000000070000000000000008"
+            + "0000002a";
+
+    @Test
+    void encodesOrderEventInVersionOneLayout() {
+        StockOrderEventDTO event = StockOrderEventDTO.builder()
+                .eventId(new UUID(1, 2))
+                .eventType(StockOrderEventDTO.STOCK_OUT_EVENT)
+                .referenceId(new UUID(3, 4))
+                .timestamp(LocalDateTime.of(2024, 11, 5, 10, 15, 30, 123_456_000))
+                .items(List.of(new StockOrderEventDTO.Item(new UUID(5, 6), new UUID(7, 8), 42)))
+                .build();
+
+        byte[] encoded = StockEventCodec.encode(event);
+
+        assertThat(HexFormat.of().formatHex(encoded)).isEqualTo(ORDER_EVENT_V1);
+        assertThat(StockEventCodec.decode(encoded)).isEqualTo(event);
+    }
+
+    @Test
+    void omitsAbsentOptionalFields() {
+        StockOrderEventDTO event = StockOrderEventDTO.builder()
+                .eventType(StockOrderEventDTO.STOCK_IN_EVENT)
+                .items(List.of())
+                .build();
+
+        byte[] encoded = StockEventCodec.encode(event);
+
+        assertThat(encoded).hasSize(8);
+        assertThat(StockEventCodec.decode(encoded)).isEqualTo(event);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.order_service.service;
+
+import com.example.order_service.dto.CursorPageDTO;
+import com.example.order_service.dto.PurchaseOrderResponseDTO;
+import com.example.order_service.dto.SalesOrderResponseDTO;
+import com.example.order_service.model.PurchaseItem;
+import com.example.order_service.model.PurchaseOrder;
+import com.example.order_service.model.SalesItem;
+import com.example.order_service.model.SalesOrder;
+import com.example.order_service.repository.PurchaseOrderRepository;
+import com.example.order_service.repository.SalesOrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderScrollQueryCountTests {
+
+    private static final int ORDERS = 6;
+    private static final int ITEMS_PER_ORDER = 2;
+
+    @Autowired
+    private SalesOrderService salesOrderService;
+
+    @Autowired
+    private PurchaseOrderService purchaseOrderService;
+
+    @Autowired
+    private SalesOrderRepository salesOrderRepository;
+
+    @Autowired
+    private PurchaseOrderRepository purchaseOrderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<SalesOrder> salesOrders = new ArrayList<>();
+    private final List<PurchaseOrder> purchaseOrders = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ORDERS; i++) {
+            SalesOrder salesOrder = SalesOrder.builder().customerName("Scroll customer " + i).build();
+            PurchaseOrder purchaseOrder = PurchaseOrder.builder().supplierName("Scroll supplier " + i).build();
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                salesOrder.addItem(SalesItem.builder()
+                        .productId(UUID.randomUUID())
+                        .warehouseId(UUID.randomUUID())
+                        .quantity(1)
+                        .unitPrice(BigDecimal.ONE)
+                        .build());
+                purchaseOrder.addItem(PurchaseItem.builder()
+                        .productId(UUID.randomUUID())
+                        .warehouseId(UUID.randomUUID())
+                        .quantity(1)
+                        .unitCost(BigDecimal.ONE)
+                        .build());
+            }
+            salesOrders.add(salesOrderRepository.save(salesOrder));
+            purchaseOrders.add(purchaseOrderRepository.save(purchaseOrder));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        salesOrderRepository.deleteAll(salesOrders);
+        purchaseOrderRepository.deleteAll(purchaseOrders);
+    }
+
+    @Test
+    void salesOrderPageLoadsItemsWithOneQuery() {
+        Statistics statistics = statistics();
+
+        CursorPageDTO<SalesOrderResponseDTO> page = salesOrderService.scrollSalesOrders(null, ORDERS);
+
+        // page query and one items query, however many orders are on the page
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(page.getContent()).hasSize(ORDERS)
+                .allSatisfy(order -> assertThat(order.getItems()).hasSize(ITEMS_PER_ORDER));
+    }
+
+    @Test
+    void purchaseOrderPageLoadsItemsWithOneQuery() {
+        Statistics statistics = statistics();
+
+        CursorPageDTO<PurchaseOrderResponseDTO> page = purchaseOrderService.scrollPurchaseOrders(null, ORDERS);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(page.getContent()).hasSize(ORDERS)
+                .allSatisfy(order -> assertThat(order.getItems()).hasSize(ITEMS_PER_ORDER));
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}